@@ -40,8 +40,11 @@ import jcoco.PyType.PyTypeId;
 
 public class JCoCo {
 
-    public static HashMap<PyTypeId, PyType> PyTypes = new HashMap<PyTypeId, PyType>();
+    public static final PyTypeTable PyTypes = new PyTypeTable();
     public static boolean verbose = false;
+    public static boolean optimize = true;
+    public static boolean peephole = true;
+    public static boolean jit = true;
     public static Scanner scanner;
     public static boolean stepOverInstructions = false;
 
@@ -96,9 +99,6 @@ public class JCoCo {
         PyTypes.put(PyTypeId.PyExceptionTypeId, exceptionType);
         exceptionType.setInstanceFuns(PyException.funs());
 
-        PyType markerType = new PyType("Marker", PyTypeId.PyMarkerType);
-        PyTypes.put(PyTypeId.PyMarkerType, markerType);
-
         PyType rangeIteratorType = new PyType("range_iterator", PyTypeId.PyRangeIteratorType);
         PyTypes.put(PyTypeId.PyRangeIteratorType, rangeIteratorType);
         rangeIteratorType.setInstanceFuns(PyRangeIterator.funs());
@@ -121,7 +121,7 @@ public class JCoCo {
 
         listIteratorType = new PyType("funlist_iterator", PyTypeId.PyFunListIteratorType);
         PyTypes.put(PyTypeId.PyFunListIteratorType, listIteratorType);
-        listIteratorType.setInstanceFuns(PyFunList.funs());
+        listIteratorType.setInstanceFuns(PyFunListIterator.funs());
 
         PyType tupleIteratorType = new PyType("tuple_iterator", PyTypeId.PyTupleIteratorType);
         PyTypes.put(PyTypeId.PyTupleIteratorType, tupleIteratorType);
@@ -137,9 +137,6 @@ public class JCoCo {
         PyType cellType = new PyType("cell", PyTypeId.PyCellType);
         PyTypes.put(PyTypeId.PyCellType, cellType);
 
-        PyType baseCallableType = new PyType("wrapper_descriptor", PyTypeId.PyBaseCallable);
-        PyTypes.put(PyTypeId.PyBaseCallable, baseCallableType);
-
         PyType mapType = new PyType("MapType", PyTypeId.PyMapType);
         PyTypes.put(PyTypeId.PyMapType, mapType);
 
@@ -162,7 +159,7 @@ public class JCoCo {
      */
     public static void main(String[] args) {
 
-        HashMap<String, PyObject> globals = new HashMap<String, PyObject>();
+        HashMap<String, PyObject> globals = new PyNamespace();
         String fileName;
         int k;
 
@@ -172,7 +169,7 @@ public class JCoCo {
 
         if (args.length == 0 || args.length > 2) {
             System.out.println("usage: coco [OPTIONS] filename");
-            System.out.println("   OPTIONS:\n    -v   Run in Verbose Mode\n    -s   Start in Step Mode");
+            System.out.println("   OPTIONS:\n    -v   Run in Verbose Mode\n    -s   Start in Step Mode\n    -n   Run the code as written without optimizing it\n    -p   Run without the peephole optimizations\n    -j   Run without compiling hot functions to JVM code");
             return;
         }
 
@@ -185,6 +182,20 @@ public class JCoCo {
 
             if (args[k].contains("s")) {
                 JCoCo.stepOverInstructions = true;
+                //Compiled code cannot be stepped through in the debugger.
+                jit = false;
+            }
+
+            if (args[k].contains("n")) {
+                optimize = false;
+            }
+
+            if (args[k].contains("p")) {
+                peephole = false;
+            }
+
+            if (args[k].contains("j")) {
+                jit = false;
             }
         }
 
@@ -0,0 +1,222 @@
+/**
+ * PyAttrCache.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * A PyAttrCache is the inline cache of one LOAD_ATTR or STORE_ATTR instruction
+ * (see PyCode.getAttrCache). It remembers how the attribute was found for the
+ * kinds of objects the instruction has seen so far, so the next object of the
+ * same kind does not need to look up the attribute by name.
+ *
+ * For an instance of a class, the kind is its shape (see PyShape) and the
+ * cache remembers the index of the attribute in the instance's slots, or the
+ * method of the class if the instance does not have the attribute. For a
+ * STORE_ATTR that adds the attribute, it also remembers the shape the instance
+ * moves to. For other objects, the kind is their type and the cache remembers
+ * the method of the type that is bound to the object.
+ *
+ * The methods remembered for instances of classes are dropped when the method
+ * table of any class changes (see PyClass.getMethodsVersion).
+ *
+ * The LOAD_METHOD instruction uses the same cache through loadMethod, which
+ * returns the method itself instead of binding it to the object.
+ *
+ * A cache starts out empty. With one kind of object it is monomorphic, and it
+ * can hold up to MAX_ENTRIES kinds (polymorphic). An instruction that sees more
+ * kinds than that is megamorphic: its cache is no longer used and it looks up
+ * the attribute by name from then on.
+ */
+package jcoco;
+
+public class PyAttrCache {
+
+    private static final int MAX_ENTRIES = 4;
+
+    private final Object[] kinds = new Object[MAX_ENTRIES];
+    private final int[] indexes = new int[MAX_ENTRIES];
+    private final PyShape[] nextShapes = new PyShape[MAX_ENTRIES];
+    private final PyCallable[] funs = new PyCallable[MAX_ENTRIES];
+    private int count = 0;
+    private boolean megamorphic = false;
+    private long methodsVersion = PyClass.getMethodsVersion();
+
+    public boolean isMegamorphic() {
+        return this.megamorphic;
+    }
+
+    private int find(Object kind) {
+        for (int i = 0; i < this.count; i++) {
+            if (this.kinds[i] == kind) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private int add(Object kind) {
+        if (this.count == MAX_ENTRIES) {
+            this.megamorphic = true;
+            return -1;
+        }
+
+        this.kinds[this.count] = kind;
+        this.count++;
+
+        return this.count - 1;
+    }
+
+    // Returns the kind of obj that the cache distinguishes entries by, or null
+    // if attributes of obj are always looked up by name.
+    private static Object kindOf(PyObject obj) {
+        if (obj instanceof PyObjectInst) {
+            return ((PyObjectInst) obj).getShape();
+        }
+
+        // The methods of built-in objects are bound as PyObjectAdapter.get does
+        // when the object does not have an attribute of the same name.
+        if (obj instanceof PyPrimitiveTypeAdapter && ((PyObjectAdapter) obj).dict == null) {
+            return obj.getType();
+        }
+
+        return null;
+    }
+
+    // Returns the entry for objects of the same kind as obj, adding it if 
+    // there is none yet, or -1 if the attribute called name cannot be cached
+    // for them.
+    private int entryFor(PyObject obj, Object kind, String name) {
+        // The methods the entries remember may have been replaced in their
+        // class, so the entries are dropped when the methods change.
+        if (this.methodsVersion != PyClass.getMethodsVersion()) {
+            this.methodsVersion = PyClass.getMethodsVersion();
+            this.count = 0;
+        }
+
+        int entry = this.find(kind);
+
+        if (entry >= 0) {
+            return entry;
+        }
+
+        int index = -1;
+        PyCallable fun = null;
+
+        if (kind instanceof PyShape) {
+            index = ((PyShape) kind).indexOf(name);
+        }
+
+        if (index < 0) {
+            // Not an attribute of the object, so it may be a method of its
+            // type. It is bound to the object when it is retrieved.
+            fun = obj.getType().getInstanceFun(name);
+
+            if (fun == null) {
+                return -1;
+            }
+        }
+
+        entry = this.add(kind);
+
+        if (entry >= 0) {
+            this.indexes[entry] = index;
+            this.funs[entry] = fun;
+        }
+
+        return entry;
+    }
+
+    public PyObject load(PyObject obj, String name) {
+        if (this.megamorphic) {
+            return obj.get(name);
+        }
+
+        Object kind = kindOf(obj);
+        int entry = kind == null ? -1 : this.entryFor(obj, kind, name);
+
+        if (entry < 0) {
+            return obj.get(name);
+        }
+
+        if (this.indexes[entry] >= 0) {
+            return ((PyObjectInst) obj).getSlot(this.indexes[entry]);
+        }
+
+        return new PyMethod(name, obj, this.funs[entry]);
+    }
+
+    // Returns the method called name that load would bind to obj, or null if
+    // the attribute is something else or is not cached. When null is 
+    // returned, the attribute must be retrieved with load instead.
+    public PyCallable loadMethod(PyObject obj, String name) {
+        if (this.megamorphic) {
+            return null;
+        }
+
+        Object kind = kindOf(obj);
+        int entry = kind == null ? -1 : this.entryFor(obj, kind, name);
+
+        if (entry < 0 || this.indexes[entry] >= 0) {
+            return null;
+        }
+
+        return this.funs[entry];
+    }
+
+    public void store(PyObject obj, String name, PyObject value) {
+        if (this.megamorphic || !(obj instanceof PyObjectInst)) {
+            obj.set(name, value);
+            return;
+        }
+
+        PyObjectInst inst = (PyObjectInst) obj;
+        PyShape shape = inst.getShape();
+        int entry = this.find(shape);
+
+        if (entry >= 0) {
+            if (this.nextShapes[entry] == null) {
+                inst.setSlot(this.indexes[entry], value);
+            } else {
+                inst.extend(this.nextShapes[entry], value);
+            }
+            return;
+        }
+
+        if (shape == null) {
+            obj.set(name, value);
+            return;
+        }
+
+        int index = shape.indexOf(name);
+
+        if (index >= 0) {
+            inst.setSlot(index, value);
+            entry = this.add(shape);
+
+            if (entry >= 0) {
+                this.indexes[entry] = index;
+                this.nextShapes[entry] = null;
+            }
+            return;
+        }
+
+        // The attribute is new to objects of this shape. If the object moves
+        // to a shape with the attribute added, the move is remembered.
+        inst.set(name, value);
+        PyShape next = inst.getShape();
+
+        if (next != null) {
+            entry = this.add(shape);
+
+            if (entry >= 0) {
+                this.indexes[entry] = next.size() - 1;
+                this.nextShapes[entry] = next;
+            }
+        }
+    }
+}
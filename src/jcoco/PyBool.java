@@ -8,7 +8,9 @@
  * KIND.
  *
  * Description:
- * The PyBool class is the JCoCo implementation of boolean values.
+ * The PyBool class is the JCoCo implementation of boolean values. There are
+ * only two PyBool objects, TRUE and FALSE. Use valueOf to get the one for a
+ * boolean.
  *
  * The magic methods of this class are not implemented yet.
  */
@@ -20,12 +22,14 @@ import jcoco.PyType.PyTypeId;
 
 public class PyBool extends PyPrimitiveTypeAdapter {
 
+    public static final PyBool TRUE = new PyBool(true);
+    public static final PyBool FALSE = new PyBool(false);
+
     private boolean val;
 
-    public PyBool(boolean b) { 
+    private PyBool(boolean b) { 
         super("bool", PyTypeId.PyBoolType);
         this.val = b;
-        initMethods(funs());
     }
 
     @Override
@@ -36,6 +40,10 @@ public class PyBool extends PyPrimitiveTypeAdapter {
         return "False";
     }
     
+    public static PyBool valueOf(boolean b) {
+        return b ? TRUE : FALSE;
+    }
+
     public boolean getVal() {
         return this.val;
     }
@@ -58,27 +66,37 @@ public class PyBool extends PyPrimitiveTypeAdapter {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
+
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
                 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                PyBool self = (PyBool) selfArg;
 
-                return new PyInt(self.getIntVal());
+                return PyInt.valueOf(self.getIntVal());
             }
         });
 
         funs.put("__add__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyBool self = (PyBool) selfArg;
                 ArrayList<PyObject> newargs = new ArrayList<>();
-                newargs.add(args.get(0));
+                newargs.add(arg1);
 
-                return (new PyInt(self.getIntVal())).callMethod(callStack,"__add__", newargs);
+                return (PyInt.valueOf(self.getIntVal())).callMethod(callStack,"__add__", newargs);
 
             }
         });
@@ -86,34 +104,42 @@ public class PyBool extends PyPrimitiveTypeAdapter {
         funs.put("__sub__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyBool self = (PyBool) selfArg;
                 ArrayList<PyObject> newargs = new ArrayList<>();
-                newargs.add(args.get(0));
+                newargs.add(arg1);
 
-                return (new PyInt(self.getIntVal())).callMethod(callStack,"__sub__", newargs);
+                return (PyInt.valueOf(self.getIntVal())).callMethod(callStack,"__sub__", newargs);
             }
         });
 
         funs.put("__mul__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyBool self = (PyBool) selfArg;
                 ArrayList<PyObject> newargs = new ArrayList<>();
-                newargs.add(args.get(0));
+                newargs.add(arg1);
 
-                return (new PyInt(self.getIntVal())).callMethod(callStack,"__mul__", newargs);
+                return (PyInt.valueOf(self.getIntVal())).callMethod(callStack,"__mul__", newargs);
 
             }
         });
@@ -121,17 +147,21 @@ public class PyBool extends PyPrimitiveTypeAdapter {
         funs.put("__truediv__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyBool self = (PyBool) selfArg;
                 ArrayList<PyObject> newargs = new ArrayList<>();
-                newargs.add(args.get(0));
+                newargs.add(arg1);
 
-                return (new PyInt(self.getIntVal())).callMethod(callStack,"__truediv__", newargs);
+                return (PyInt.valueOf(self.getIntVal())).callMethod(callStack,"__truediv__", newargs);
 
             }
         });
@@ -139,17 +169,21 @@ public class PyBool extends PyPrimitiveTypeAdapter {
         funs.put("__floordiv__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyBool self = (PyBool) selfArg;
                 ArrayList<PyObject> newargs = new ArrayList<>();
-                newargs.add(args.get(0));
+                newargs.add(arg1);
 
-                return (new PyInt(self.getIntVal())).callMethod(callStack,"__floordiv__", newargs);
+                return (PyInt.valueOf(self.getIntVal())).callMethod(callStack,"__floordiv__", newargs);
 
             }
         });
@@ -157,17 +191,21 @@ public class PyBool extends PyPrimitiveTypeAdapter {
         funs.put("__mod__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyBool self = (PyBool) selfArg;
                 ArrayList<PyObject> newargs = new ArrayList<>();
-                newargs.add(args.get(0));
+                newargs.add(arg1);
 
-                return (new PyInt(self.getIntVal())).callMethod(callStack,"__mod__", newargs);
+                return (PyInt.valueOf(self.getIntVal())).callMethod(callStack,"__mod__", newargs);
 
             }
         });
@@ -180,11 +218,16 @@ public class PyBool extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyBool self = (PyBool) selfArg;
                 ArrayList<PyObject> newargs = new ArrayList<>();
-                newargs.add(args.get(0));
+                newargs.add(arg1);
 
-                return (new PyInt(self.getIntVal())).callMethod(callStack,"__eq__", newargs);
+                return (PyInt.valueOf(self.getIntVal())).callMethod(callStack,"__eq__", newargs);
             }
         });
 
@@ -196,11 +239,16 @@ public class PyBool extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyBool self = (PyBool) selfArg;
                 ArrayList<PyObject> newargs = new ArrayList<>();
-                newargs.add(args.get(0));
+                newargs.add(arg1);
 
-                return (new PyInt(self.getIntVal())).callMethod(callStack,"__ne__", newargs);
+                return (PyInt.valueOf(self.getIntVal())).callMethod(callStack,"__ne__", newargs);
             }
         });
 
@@ -212,11 +260,16 @@ public class PyBool extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyBool self = (PyBool) selfArg;
                 ArrayList<PyObject> newargs = new ArrayList<>();
-                newargs.add(args.get(0));
+                newargs.add(arg1);
 
-                return (new PyInt(self.getIntVal())).callMethod(callStack,"__lt__", newargs);
+                return (PyInt.valueOf(self.getIntVal())).callMethod(callStack,"__lt__", newargs);
             }
         });
 
@@ -228,11 +281,16 @@ public class PyBool extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyBool self = (PyBool) selfArg;
                 ArrayList<PyObject> newargs = new ArrayList<>();
-                newargs.add(args.get(0));
+                newargs.add(arg1);
 
-                return (new PyInt(self.getIntVal())).callMethod(callStack,"__le__", newargs);
+                return (PyInt.valueOf(self.getIntVal())).callMethod(callStack,"__le__", newargs);
             }
         });
 
@@ -244,11 +302,16 @@ public class PyBool extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyBool self = (PyBool) selfArg;
                 ArrayList<PyObject> newargs = new ArrayList<>();
-                newargs.add(args.get(0));
+                newargs.add(arg1);
 
-                return (new PyInt(self.getIntVal())).callMethod(callStack,"__gt__", newargs);
+                return (PyInt.valueOf(self.getIntVal())).callMethod(callStack,"__gt__", newargs);
             }
         });
 
@@ -260,11 +323,16 @@ public class PyBool extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyBool self = (PyBool) selfArg;
                 ArrayList<PyObject> newargs = new ArrayList<>();
-                newargs.add(args.get(0));
+                newargs.add(arg1);
 
-                return (new PyInt(self.getIntVal())).callMethod(callStack,"__ge__", newargs);
+                return (PyInt.valueOf(self.getIntVal())).callMethod(callStack,"__ge__", newargs);
             }
         });
 
@@ -276,7 +344,12 @@ public class PyBool extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyBool self = (PyBool) selfArg;
 
                 return new PyFloat(self.getIntVal());
             }
@@ -290,9 +363,14 @@ public class PyBool extends PyPrimitiveTypeAdapter {
                             "TypeErro: expected 1 argument, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyBool self = (PyBool) selfArg;
 
-                return new PyInt(self.getIntVal());
+                return PyInt.valueOf(self.getIntVal());
             }
         });
 
@@ -304,7 +382,12 @@ public class PyBool extends PyPrimitiveTypeAdapter {
                             "TypeErro: expected 1 argument, got " + args.size());
                 }
 
-                PyBool self = (PyBool) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyBool self = (PyBool) selfArg;
 
                 return self;
             }
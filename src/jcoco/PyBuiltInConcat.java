@@ -47,8 +47,11 @@ public class PyBuiltInConcat extends PyCallableAdapter {
         
         PyObject x = args.get(0);
         
-        ArrayList<PyObject> callArgs = new ArrayList<PyObject>();
-        
-        return x.callMethod(callStack,"concat", callArgs);
+        return this.call1(callStack, x);
+    }
+    
+    @Override
+    public PyObject call1(PyCallStack callStack, PyObject x) {
+        return x.callMethod(callStack,"concat");
     }
 }
@@ -42,7 +42,6 @@ public class PyBuiltInIter extends PyCallableAdapter {
     
     @Override
     public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args)  {
-        ArrayList<PyObject> iterArgs = new ArrayList<PyObject>();
         PyObject x;
         
         if (args.size() != 1) {
@@ -52,7 +51,12 @@ public class PyBuiltInIter extends PyCallableAdapter {
         
         x =args.get(0);
         
-        return x.callMethod(callStack,"__iter__", iterArgs);
+        return this.call1(callStack, x);
+    }
+    
+    @Override
+    public PyObject call1(PyCallStack callStack, PyObject x) {
+        return x.callSlot(callStack, PyType.SLOT_ITER);
     }
 }
 
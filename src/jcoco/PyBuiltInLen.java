@@ -31,16 +31,16 @@ public class PyBuiltInLen extends PyCallableAdapter {
 
     @Override
     public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-        ArrayList<PyObject> iterArgs = new ArrayList<PyObject>();
-        PyObject x;
-
         if (args.size() != 1) {
             throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                     "TypeError: expected 1 arguments, got " + args.size());
         }
 
-        x = args.get(0);
+        return this.call1(callStack, args.get(0));
+    }
 
-        return x.callMethod(callStack,"__len__", iterArgs);
+    @Override
+    public PyObject call1(PyCallStack callStack, PyObject x) {
+        return x.callSlot(callStack, PyType.SLOT_LEN);
     }
 }
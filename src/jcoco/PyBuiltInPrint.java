@@ -42,9 +42,8 @@ public class PyBuiltInPrint extends PyCallableAdapter {
         PyObject w;
 
         for (int i = 0; i < args.size(); i++) {
-            ArrayList<PyObject> strargs = new ArrayList<PyObject>();
             x = args.get(i);
-            w = x.callMethod(callStack,"__str__", strargs);
+            w = x.callSlot(callStack, PyType.SLOT_STR);
             output = w.str() + output;
 
             if (i < args.size() - 1) {
@@ -53,6 +52,20 @@ public class PyBuiltInPrint extends PyCallableAdapter {
         }
         System.out.println(output);
 
-        return new PyNone();
+        return PyNone.NONE;
+    }
+
+    @Override
+    public PyObject call0(PyCallStack callStack) {
+        System.out.println();
+
+        return PyNone.NONE;
+    }
+
+    @Override
+    public PyObject call1(PyCallStack callStack, PyObject x) {
+        System.out.println(x.callSlot(callStack, PyType.SLOT_STR).str());
+
+        return PyNone.NONE;
     }
 }
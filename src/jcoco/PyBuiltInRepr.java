@@ -46,9 +46,12 @@ public class PyBuiltInRepr extends PyCallableAdapter {
         
         x = args.get(0);
         
-        ArrayList<PyObject> callArgs = new ArrayList<PyObject>();
-        
-        return x.callMethod(callStack,"__repr__", callArgs);
+        return this.call1(callStack, x);
+    }
+    
+    @Override
+    public PyObject call1(PyCallStack callStack, PyObject x) {
+        return x.callSlot(callStack, PyType.SLOT_REPR);
     }
     
 }
@@ -101,7 +101,7 @@ public class PyBuiltInTPrint extends PyCallableAdapter {
         
         System.out.println(output);
         
-        return new PyNone();
+        return PyNone.NONE;
     }
     
 }
@@ -30,124 +30,271 @@ import java.util.List;
 import jcoco.PyException.ExceptionType;
 
 class PyByteCode {
+    // The opcode numbers used in the packed instruction stream of a PyCode
+    // object (see PyCode.getCodeStream). PyFrame switches directly on these
+    // values, so each PyOpCode below is given its number from this list.
+    static final int STOP_CODE = 0;
+    static final int NOP = 1;
+    static final int POP_TOP = 2;
+    static final int ROT_TWO = 3;
+    static final int ROT_THREE = 4;
+    static final int DUP_TOP = 5;
+    static final int DUP_TOP_TWO = 6;
+    static final int UNARY_POSITIVE = 7;
+    static final int UNARY_NEGATIVE = 8;
+    static final int UNARY_NOT = 9;
+    static final int UNARY_INVERT = 10;
+    static final int GET_ITER = 11;
+    static final int BINARY_POWER = 12;
+    static final int BINARY_MULTIPLY = 13;
+    static final int BINARY_FLOOR_DIVIDE = 14;
+    static final int BINARY_TRUE_DIVIDE = 15;
+    static final int BINARY_MODULO = 16;
+    static final int BINARY_ADD = 17;
+    static final int BINARY_SUBTRACT = 18;
+    static final int BINARY_SUBSCR = 19;
+    static final int BINARY_LSHIFT = 20;
+    static final int BINARY_RSHIFT = 21;
+    static final int BINARY_AND = 22;
+    static final int BINARY_XOR = 23;
+    static final int BINARY_OR = 24;
+    static final int INPLACE_POWER = 25;
+    static final int INPLACE_MULTIPLY = 26;
+    static final int INPLACE_FLOOR_DIVIDE = 27;
+    static final int INPLACE_TRUE_DIVIDE = 28;
+    static final int INPLACE_MODULO = 29;
+    static final int INPLACE_ADD = 30;
+    static final int INPLACE_SUBTRACT = 31;
+    static final int INPLACE_LSHIFT = 32;
+    static final int INPLACE_RSHIFT = 33;
+    static final int INPLACE_AND = 34;
+    static final int INPLACE_XOR = 35;
+    static final int INPLACE_OR = 36;
+    static final int STORE_SUBSCR = 37;
+    static final int DELETE_SUBSCR = 38;
+    static final int PRINT_EXPR = 39;
+    static final int BREAK_LOOP = 40;
+    static final int CONTINUE_LOOP = 41;
+    static final int SET_ADD = 42;
+    static final int LIST_APPEND = 43;
+    static final int MAP_ADD = 44;
+    static final int RETURN_VALUE = 45;
+    static final int YIELD_VALUE = 46;
+    static final int IMPORT_STAR = 47;
+    static final int POP_BLOCK = 48;
+    static final int POP_EXCEPT = 49;
+    static final int END_FINALLY = 50;
+    static final int LOAD_BUILD_CLASS = 51;
+    static final int SETUP_WITH = 52;
+    static final int WITH_CLEANUP = 53;
+    static final int STORE_LOCALS = 54;
+    static final int STORE_NAME = 55;
+    static final int DELETE_NAME = 56;
+    static final int UNPACK_SEQUENCE = 57;
+    static final int UNPACK_EX = 58;
+    static final int STORE_ATTR = 59;
+    static final int DELETE_ATTR = 60;
+    static final int STORE_GLOBAL = 61;
+    static final int DELETE_GLOBAL = 62;
+    static final int LOAD_CONST = 63;
+    static final int LOAD_NAME = 64;
+    static final int BUILD_TUPLE = 65;
+    static final int BUILD_LIST = 66;
+    static final int BUILD_SET = 67;
+    static final int BUILD_MAP = 68;
+    static final int LOAD_ATTR = 69;
+    static final int COMPARE_OP = 70;
+    static final int IMPORT_NAME = 71;
+    static final int IMPORT_FROM = 72;
+    static final int JUMP_FORWARD = 73;
+    static final int POP_JUMP_IF_TRUE = 74;
+    static final int POP_JUMP_IF_FALSE = 75;
+    static final int JUMP_IF_TRUE_OR_POP = 76;
+    static final int JUMP_IF_FALSE_OR_POP = 77;
+    static final int JUMP_ABSOLUTE = 78;
+    static final int FOR_ITER = 79;
+    static final int LOAD_GLOBAL = 80;
+    static final int SETUP_LOOP = 81;
+    static final int SETUP_EXCEPT = 82;
+    static final int SETUP_FINALLY = 83;
+    static final int STORE_MAP = 84;
+    static final int LOAD_FAST = 85;
+    static final int STORE_FAST = 86;
+    static final int DELETE_FAST = 87;
+    static final int LOAD_CLOSURE = 88;
+    static final int LOAD_DEREF = 89;
+    static final int STORE_DEREF = 90;
+    static final int DELETE_DEREF = 91;
+    static final int RAISE_VARARGS = 92;
+    static final int CALL_FUNCTION = 93;
+    static final int MAKE_FUNCTION = 94;
+    static final int MAKE_CLOSURE = 95;
+    static final int BUILD_SLICE = 96;
+    static final int EXTENDED_ARG = 97;
+    static final int CALL_FUNCTION_VAR = 98;
+    static final int CALL_FUNCTION_KW = 99;
+    static final int CALL_FUNCTION_VAR_KW = 100;
+    static final int HAVE_ARGUMENT = 101;
+    static final int BUILD_FUNLIST = 102;
+    static final int SELECT_FUNLIST = 103;
+    static final int CONS_FUNLIST = 104;
+    static final int SELECT_TUPLE = 105;
+    static final int BREAK_POINT = 106;
+    static final int LOAD_METHOD = 107;
+    static final int CALL_METHOD = 108;
+    // DEBUG_STEP is not an instruction of casm files. It is the opcode of every
+    // instruction in the stream frames run while the debugger is stepping (see
+    // PyCode.getDebugStream).
+    static final int DEBUG_STEP = 109;
+    static final int BINARY_ADD_INT = 110;
+    static final int BINARY_SUBSCR_LIST_INT = 111;
+    static final int FOR_ITER_RANGE = 112;
+    static final int LOAD_FAST_LOAD_FAST = 113;
+    static final int ADD_CONST_FAST = 114;
+
     enum PyOpCode {
-        STOP_CODE (0),
-        NOP (0),
-        POP_TOP (0),
-        ROT_TWO (0),
-        ROT_THREE (0),
-        DUP_TOP (0),
-        DUP_TOP_TWO (0),
-        UNARY_POSITIVE (0),
-        UNARY_NEGATIVE (0),
-        UNARY_NOT (0),
-        UNARY_INVERT (0),
-        GET_ITER (0),
-        BINARY_POWER (0),
-        BINARY_MULTIPLY (0),
-        BINARY_FLOOR_DIVIDE (0),
-        BINARY_TRUE_DIVIDE (0),
-        BINARY_MODULO (0),
-        BINARY_ADD (0),
-        BINARY_SUBTRACT (0),
-        BINARY_SUBSCR (0),
-        BINARY_LSHIFT (0),
-        BINARY_RSHIFT (0),
-        BINARY_AND (0),
-        BINARY_XOR (0),
-        BINARY_OR (0),
-        INPLACE_POWER (0),
-        INPLACE_MULTIPLY (0),
-        INPLACE_FLOOR_DIVIDE (0),
-        INPLACE_TRUE_DIVIDE (0),
-        INPLACE_MODULO (0),
-        INPLACE_ADD (0),
-        INPLACE_SUBTRACT (0),
-        INPLACE_LSHIFT (0),
-        INPLACE_RSHIFT (0),
-        INPLACE_AND (0),
-        INPLACE_XOR (0),
-        INPLACE_OR (0),
-        STORE_SUBSCR (0),
-        DELETE_SUBSCR (0),
-        PRINT_EXPR (0),
-        BREAK_LOOP (0),
-        CONTINUE_LOOP (1),
-        SET_ADD (1),
-        LIST_APPEND (1),
-        MAP_ADD (1),
-        RETURN_VALUE (0),
-        YIELD_VALUE (0),
-        IMPORT_STAR (0),
-        POP_BLOCK (0),
-        POP_EXCEPT (0),
-        END_FINALLY (0),
-        LOAD_BUILD_CLASS (0),
-        SETUP_WITH (1),
-        WITH_CLEANUP (0),
-        STORE_LOCALS (0),
-        STORE_NAME (1),
-        DELETE_NAME (1),
-        UNPACK_SEQUENCE (1),
-        UNPACK_EX (1),
-        STORE_ATTR (1),
-        DELETE_ATTR (1),
-        STORE_GLOBAL (1),
-        DELETE_GLOBAL (1),
-        LOAD_CONST (1),
-        LOAD_NAME (1),
-        BUILD_TUPLE (1),
-        BUILD_LIST (1),
-        BUILD_SET (1),
-        BUILD_MAP (1),
-        LOAD_ATTR (1),
-        COMPARE_OP (1),
-        IMPORT_NAME (1),  
-        IMPORT_FROM (1),
-        JUMP_FORWARD (1),
-        POP_JUMP_IF_TRUE (1),
-        POP_JUMP_IF_FALSE (1),
-        JUMP_IF_TRUE_OR_POP (1),
-        JUMP_IF_FALSE_OR_POP (1),
-        JUMP_ABSOLUTE (1),
-        FOR_ITER (1),
-        LOAD_GLOBAL (1),
-        SETUP_LOOP (1),
-        SETUP_EXCEPT (1),
-        SETUP_FINALLY (1),
-        STORE_MAP (0),
-        LOAD_FAST (1),
-        STORE_FAST (1),
-        DELETE_FAST (1),
-        LOAD_CLOSURE (1),
-        LOAD_DEREF (1),
-        STORE_DEREF (1),
-        DELETE_DEREF (1),
-        RAISE_VARARGS (1),
-        CALL_FUNCTION (1),
-        MAKE_FUNCTION (1),
-        MAKE_CLOSURE (1),
-        BUILD_SLICE (1),
-        EXTENDED_ARG (1),
-        CALL_FUNCTION_VAR (1),
-        CALL_FUNCTION_KW (1),
-        CALL_FUNCTION_VAR_KW (1),
-        HAVE_ARGUMENT (0),
+        STOP_CODE (PyByteCode.STOP_CODE, 0),
+        NOP (PyByteCode.NOP, 0),
+        POP_TOP (PyByteCode.POP_TOP, 0),
+        ROT_TWO (PyByteCode.ROT_TWO, 0),
+        ROT_THREE (PyByteCode.ROT_THREE, 0),
+        DUP_TOP (PyByteCode.DUP_TOP, 0),
+        DUP_TOP_TWO (PyByteCode.DUP_TOP_TWO, 0),
+        UNARY_POSITIVE (PyByteCode.UNARY_POSITIVE, 0),
+        UNARY_NEGATIVE (PyByteCode.UNARY_NEGATIVE, 0),
+        UNARY_NOT (PyByteCode.UNARY_NOT, 0),
+        UNARY_INVERT (PyByteCode.UNARY_INVERT, 0),
+        GET_ITER (PyByteCode.GET_ITER, 0),
+        BINARY_POWER (PyByteCode.BINARY_POWER, 0),
+        BINARY_MULTIPLY (PyByteCode.BINARY_MULTIPLY, 0),
+        BINARY_FLOOR_DIVIDE (PyByteCode.BINARY_FLOOR_DIVIDE, 0),
+        BINARY_TRUE_DIVIDE (PyByteCode.BINARY_TRUE_DIVIDE, 0),
+        BINARY_MODULO (PyByteCode.BINARY_MODULO, 0),
+        BINARY_ADD (PyByteCode.BINARY_ADD, 0),
+        BINARY_SUBTRACT (PyByteCode.BINARY_SUBTRACT, 0),
+        BINARY_SUBSCR (PyByteCode.BINARY_SUBSCR, 0),
+        BINARY_LSHIFT (PyByteCode.BINARY_LSHIFT, 0),
+        BINARY_RSHIFT (PyByteCode.BINARY_RSHIFT, 0),
+        BINARY_AND (PyByteCode.BINARY_AND, 0),
+        BINARY_XOR (PyByteCode.BINARY_XOR, 0),
+        BINARY_OR (PyByteCode.BINARY_OR, 0),
+        INPLACE_POWER (PyByteCode.INPLACE_POWER, 0),
+        INPLACE_MULTIPLY (PyByteCode.INPLACE_MULTIPLY, 0),
+        INPLACE_FLOOR_DIVIDE (PyByteCode.INPLACE_FLOOR_DIVIDE, 0),
+        INPLACE_TRUE_DIVIDE (PyByteCode.INPLACE_TRUE_DIVIDE, 0),
+        INPLACE_MODULO (PyByteCode.INPLACE_MODULO, 0),
+        INPLACE_ADD (PyByteCode.INPLACE_ADD, 0),
+        INPLACE_SUBTRACT (PyByteCode.INPLACE_SUBTRACT, 0),
+        INPLACE_LSHIFT (PyByteCode.INPLACE_LSHIFT, 0),
+        INPLACE_RSHIFT (PyByteCode.INPLACE_RSHIFT, 0),
+        INPLACE_AND (PyByteCode.INPLACE_AND, 0),
+        INPLACE_XOR (PyByteCode.INPLACE_XOR, 0),
+        INPLACE_OR (PyByteCode.INPLACE_OR, 0),
+        STORE_SUBSCR (PyByteCode.STORE_SUBSCR, 0),
+        DELETE_SUBSCR (PyByteCode.DELETE_SUBSCR, 0),
+        PRINT_EXPR (PyByteCode.PRINT_EXPR, 0),
+        BREAK_LOOP (PyByteCode.BREAK_LOOP, 0),
+        CONTINUE_LOOP (PyByteCode.CONTINUE_LOOP, 1),
+        SET_ADD (PyByteCode.SET_ADD, 1),
+        LIST_APPEND (PyByteCode.LIST_APPEND, 1),
+        MAP_ADD (PyByteCode.MAP_ADD, 1),
+        RETURN_VALUE (PyByteCode.RETURN_VALUE, 0),
+        YIELD_VALUE (PyByteCode.YIELD_VALUE, 0),
+        IMPORT_STAR (PyByteCode.IMPORT_STAR, 0),
+        POP_BLOCK (PyByteCode.POP_BLOCK, 0),
+        POP_EXCEPT (PyByteCode.POP_EXCEPT, 0),
+        END_FINALLY (PyByteCode.END_FINALLY, 0),
+        LOAD_BUILD_CLASS (PyByteCode.LOAD_BUILD_CLASS, 0),
+        SETUP_WITH (PyByteCode.SETUP_WITH, 1),
+        WITH_CLEANUP (PyByteCode.WITH_CLEANUP, 0),
+        STORE_LOCALS (PyByteCode.STORE_LOCALS, 0),
+        STORE_NAME (PyByteCode.STORE_NAME, 1),
+        DELETE_NAME (PyByteCode.DELETE_NAME, 1),
+        UNPACK_SEQUENCE (PyByteCode.UNPACK_SEQUENCE, 1),
+        UNPACK_EX (PyByteCode.UNPACK_EX, 1),
+        STORE_ATTR (PyByteCode.STORE_ATTR, 1),
+        DELETE_ATTR (PyByteCode.DELETE_ATTR, 1),
+        STORE_GLOBAL (PyByteCode.STORE_GLOBAL, 1),
+        DELETE_GLOBAL (PyByteCode.DELETE_GLOBAL, 1),
+        LOAD_CONST (PyByteCode.LOAD_CONST, 1),
+        LOAD_NAME (PyByteCode.LOAD_NAME, 1),
+        BUILD_TUPLE (PyByteCode.BUILD_TUPLE, 1),
+        BUILD_LIST (PyByteCode.BUILD_LIST, 1),
+        BUILD_SET (PyByteCode.BUILD_SET, 1),
+        BUILD_MAP (PyByteCode.BUILD_MAP, 1),
+        LOAD_ATTR (PyByteCode.LOAD_ATTR, 1),
+        COMPARE_OP (PyByteCode.COMPARE_OP, 1),
+        IMPORT_NAME (PyByteCode.IMPORT_NAME, 1),  
+        IMPORT_FROM (PyByteCode.IMPORT_FROM, 1),
+        JUMP_FORWARD (PyByteCode.JUMP_FORWARD, 1),
+        POP_JUMP_IF_TRUE (PyByteCode.POP_JUMP_IF_TRUE, 1),
+        POP_JUMP_IF_FALSE (PyByteCode.POP_JUMP_IF_FALSE, 1),
+        JUMP_IF_TRUE_OR_POP (PyByteCode.JUMP_IF_TRUE_OR_POP, 1),
+        JUMP_IF_FALSE_OR_POP (PyByteCode.JUMP_IF_FALSE_OR_POP, 1),
+        JUMP_ABSOLUTE (PyByteCode.JUMP_ABSOLUTE, 1),
+        FOR_ITER (PyByteCode.FOR_ITER, 1),
+        LOAD_GLOBAL (PyByteCode.LOAD_GLOBAL, 1),
+        SETUP_LOOP (PyByteCode.SETUP_LOOP, 1),
+        SETUP_EXCEPT (PyByteCode.SETUP_EXCEPT, 1),
+        SETUP_FINALLY (PyByteCode.SETUP_FINALLY, 1),
+        STORE_MAP (PyByteCode.STORE_MAP, 0),
+        LOAD_FAST (PyByteCode.LOAD_FAST, 1),
+        STORE_FAST (PyByteCode.STORE_FAST, 1),
+        DELETE_FAST (PyByteCode.DELETE_FAST, 1),
+        LOAD_CLOSURE (PyByteCode.LOAD_CLOSURE, 1),
+        LOAD_DEREF (PyByteCode.LOAD_DEREF, 1),
+        STORE_DEREF (PyByteCode.STORE_DEREF, 1),
+        DELETE_DEREF (PyByteCode.DELETE_DEREF, 1),
+        RAISE_VARARGS (PyByteCode.RAISE_VARARGS, 1),
+        CALL_FUNCTION (PyByteCode.CALL_FUNCTION, 1),
+        MAKE_FUNCTION (PyByteCode.MAKE_FUNCTION, 1),
+        MAKE_CLOSURE (PyByteCode.MAKE_CLOSURE, 1),
+        BUILD_SLICE (PyByteCode.BUILD_SLICE, 1),
+        EXTENDED_ARG (PyByteCode.EXTENDED_ARG, 1),
+        CALL_FUNCTION_VAR (PyByteCode.CALL_FUNCTION_VAR, 1),
+        CALL_FUNCTION_KW (PyByteCode.CALL_FUNCTION_KW, 1),
+        CALL_FUNCTION_VAR_KW (PyByteCode.CALL_FUNCTION_VAR_KW, 1),
+        HAVE_ARGUMENT (PyByteCode.HAVE_ARGUMENT, 0),
         //Here are some new opcodes that Kent Lee has defined.
-        BUILD_FUNLIST (1),
-        SELECT_FUNLIST (0), // TOS1 is PyFunList of tail of list, TOS is head of list
-        CONS_FUNLIST (0),
-        SELECT_TUPLE  (1), //TOS to TOSn where n is the length of tuple. TOS is left-most element.
+        BUILD_FUNLIST (PyByteCode.BUILD_FUNLIST, 1),
+        SELECT_FUNLIST (PyByteCode.SELECT_FUNLIST, 0), // TOS1 is PyFunList of tail of list, TOS is head of list
+        CONS_FUNLIST (PyByteCode.CONS_FUNLIST, 0),
+        SELECT_TUPLE  (PyByteCode.SELECT_TUPLE, 1), //TOS to TOSn where n is the length of tuple. TOS is left-most element.
         
         // For more information on the BREAK_POINT instruction, see the JCoCo web page.
-        BREAK_POINT (0); //This is an additional instruction for inspection of the virtual machine state.
+        BREAK_POINT (PyByteCode.BREAK_POINT, 0), //This is an additional instruction for inspection of the virtual machine state.
+        
+        // A method call obj.f(x) may be written as LOAD_METHOD and CALL_METHOD
+        // instead of LOAD_ATTR and CALL_FUNCTION, so no bound method is created
+        // for the call. PyParser rewrites calls this way when loading code.
+        LOAD_METHOD (PyByteCode.LOAD_METHOD, 1), // TOS is replaced by the method and TOS, or by null and the attribute
+        CALL_METHOD (PyByteCode.CALL_METHOD, 1), // Calls what LOAD_METHOD left below the operand arguments.
+        
+        // These are the quickened forms of BINARY_ADD, BINARY_SUBSCR, and 
+        // FOR_ITER for int, list and int, and range iterator operands. The 
+        // interpreter puts them in the code stream itself (see PyCode.quicken).
+        BINARY_ADD_INT (PyByteCode.BINARY_ADD_INT, 0),
+        BINARY_SUBSCR_LIST_INT (PyByteCode.BINARY_SUBSCR_LIST_INT, 0),
+        FOR_ITER_RANGE (PyByteCode.FOR_ITER_RANGE, 1),
         
+        // These are the superinstructions that PyOptimizer puts in the code 
+        // stream in place of the first instruction of a sequence. The rest of
+        // the sequence follows them and holds their other operands.
+        LOAD_FAST_LOAD_FAST (PyByteCode.LOAD_FAST_LOAD_FAST, 1), // LOAD_FAST, LOAD_FAST
+        ADD_CONST_FAST (PyByteCode.ADD_CONST_FAST, 1); // LOAD_FAST, LOAD_CONST, BINARY_ADD or INPLACE_ADD, STORE_FAST
+        
+        private int code;
         private int args;
         
-        PyOpCode(int args) {
+        PyOpCode(int code, int args) {
+            this.code = code;
             this.args = args;
         }
         
+        public int code() {
+            return this.code;
+        }
+        
         public int args() {
             return this.args;
         }
@@ -155,6 +302,7 @@ class PyByteCode {
     
     private static HashMap<String, PyOpCode> OpCodeMap = createOpCodeMap();
     private static HashMap<String, Integer> ArgMap = createArgMap();
+    private static PyOpCode[] OpCodeTable = createOpCodeTable();
     
     private static HashMap<String, PyOpCode> createOpCodeMap() {
         HashMap<String, PyOpCode> map = new HashMap<String, PyOpCode>();
@@ -172,6 +320,20 @@ class PyByteCode {
         return map;
     }
     
+    private static PyOpCode[] createOpCodeTable() {
+        // Not every number is an opcode of the enum (e.g. DEBUG_STEP), so the
+        // table is sized by the largest one.
+        int size = 0;
+        for (PyOpCode opcode : PyOpCode.values()) {
+            size = Math.max(size, opcode.code() + 1);
+        }
+        PyOpCode[] table = new PyOpCode[size];
+        for (PyOpCode opcode : PyOpCode.values()) {
+            table[opcode.code()] = opcode;
+        }
+        return table;
+    }
+    
     private PyOpCode opcode;
     private int operand;
     private String label;
@@ -179,6 +341,408 @@ class PyByteCode {
     public static int numArgs(String opcode) {
         return ArgMap.get(opcode);
     }
+    
+    public static PyOpCode opCode(int code) {
+        return OpCodeTable[code];
+    }
+    
+    public static String opCodeName(int code) {
+        return OpCodeTable[code].name();
+    }
+    
+    // Returns the change in the depth of the operand stack caused by executing
+    // an instruction. Branching instructions may have a different effect when
+    // the branch is taken (jump is true) than when execution falls through.
+    // For SETUP_EXCEPT and SETUP_FINALLY the jump is the edge to the handler,
+    // which is entered with the traceback, value, and exception pushed on the
+    // stack as it was when the block was set up.
+    public static int stackEffect(int opcode, int operand, boolean jump) {
+        switch (opcode) {
+            case POP_TOP:
+                return -1;
+            case DUP_TOP:
+                return 1;
+            case DUP_TOP_TWO:
+                return 2;
+            case BINARY_POWER:
+            case BINARY_MULTIPLY:
+            case BINARY_FLOOR_DIVIDE:
+            case BINARY_TRUE_DIVIDE:
+            case BINARY_MODULO:
+            case BINARY_ADD:
+            case BINARY_SUBTRACT:
+            case BINARY_SUBSCR:
+            case BINARY_LSHIFT:
+            case BINARY_RSHIFT:
+            case BINARY_AND:
+            case BINARY_XOR:
+            case BINARY_OR:
+            case BINARY_ADD_INT:
+            case BINARY_SUBSCR_LIST_INT:
+            case INPLACE_POWER:
+            case INPLACE_MULTIPLY:
+            case INPLACE_FLOOR_DIVIDE:
+            case INPLACE_TRUE_DIVIDE:
+            case INPLACE_MODULO:
+            case INPLACE_ADD:
+            case INPLACE_SUBTRACT:
+            case INPLACE_LSHIFT:
+            case INPLACE_RSHIFT:
+            case INPLACE_AND:
+            case INPLACE_XOR:
+            case INPLACE_OR:
+                return -1;
+            case STORE_SUBSCR:
+                return -3;
+            case DELETE_SUBSCR:
+                return -2;
+            case PRINT_EXPR:
+            case SET_ADD:
+            case LIST_APPEND:
+                return -1;
+            case MAP_ADD:
+                return -2;
+            case RETURN_VALUE:
+            case IMPORT_STAR:
+                return -1;
+            case END_FINALLY:
+                return -1;
+            case LOAD_BUILD_CLASS:
+                return 1;
+            case WITH_CLEANUP:
+            case STORE_LOCALS:
+            case STORE_NAME:
+                return -1;
+            case UNPACK_SEQUENCE:
+                return operand - 1;
+            case UNPACK_EX:
+                return (operand & 0xFF) + (operand >> 8);
+            case STORE_ATTR:
+                return -2;
+            case DELETE_ATTR:
+            case STORE_GLOBAL:
+                return -1;
+            case LOAD_CONST:
+            case LOAD_NAME:
+                return 1;
+            case BUILD_TUPLE:
+            case BUILD_LIST:
+            case BUILD_SET:
+            case BUILD_FUNLIST:
+            case BUILD_SLICE:
+                return 1 - operand;
+            case BUILD_MAP:
+                return 1;
+            case COMPARE_OP:
+            case IMPORT_NAME:
+                return -1;
+            case IMPORT_FROM:
+                return 1;
+            case POP_JUMP_IF_TRUE:
+            case POP_JUMP_IF_FALSE:
+                return -1;
+            case JUMP_IF_TRUE_OR_POP:
+            case JUMP_IF_FALSE_OR_POP:
+                return jump ? 0 : -1;
+            case FOR_ITER:
+            case FOR_ITER_RANGE:
+                return jump ? -1 : 1;
+            case LOAD_GLOBAL:
+                return 1;
+            case SETUP_WITH:
+                return jump ? 6 : 1;
+            case SETUP_EXCEPT:
+            case SETUP_FINALLY:
+                return jump ? 3 : 0;
+            case STORE_MAP:
+                return -2;
+            case LOAD_FAST:
+            case LOAD_CLOSURE:
+            case LOAD_DEREF:
+                return 1;
+            case LOAD_FAST_LOAD_FAST:
+            case ADD_CONST_FAST:
+                //A superinstruction is followed as if it were the first
+                //instruction of its sequence, with the rest to come.
+                return 1;
+            case STORE_FAST:
+            case STORE_DEREF:
+                return -1;
+            case RAISE_VARARGS:
+            case CALL_FUNCTION:
+                return -operand;
+            case LOAD_METHOD:
+                return 1;
+            case CALL_METHOD:
+                return -operand - 1;
+            case CALL_FUNCTION_VAR:
+            case CALL_FUNCTION_KW:
+                return -operand - 1;
+            case CALL_FUNCTION_VAR_KW:
+                return -operand - 2;
+            case MAKE_CLOSURE:
+                return -1;
+            case SELECT_FUNLIST:
+                return 1;
+            case CONS_FUNLIST:
+                return -1;
+            case SELECT_TUPLE:
+                return operand - 1;
+            default:
+                return 0;
+        }
+    }
+    
+    // Returns the number of values an instruction takes off the operand stack
+    // for the instructions that expressions are made of. For any other 
+    // instruction it returns -1. Together with stackEffect, this tells whether 
+    // an instruction uses a value that was already on the stack below its 
+    // own operands.
+    public static int stackPops(int opcode, int operand) {
+        switch (opcode) {
+            case NOP:
+            case LOAD_CONST:
+            case LOAD_NAME:
+            case LOAD_GLOBAL:
+            case LOAD_FAST:
+            case LOAD_CLOSURE:
+            case LOAD_DEREF:
+            case LOAD_FAST_LOAD_FAST:
+            case ADD_CONST_FAST:
+            case BUILD_MAP:
+            case UNARY_POSITIVE:
+            case UNARY_NEGATIVE:
+            case UNARY_NOT:
+            case UNARY_INVERT:
+            case LOAD_ATTR:
+            case LOAD_METHOD:
+            case GET_ITER:
+            case BINARY_POWER:
+            case BINARY_MULTIPLY:
+            case BINARY_FLOOR_DIVIDE:
+            case BINARY_TRUE_DIVIDE:
+            case BINARY_MODULO:
+            case BINARY_ADD:
+            case BINARY_SUBTRACT:
+            case BINARY_SUBSCR:
+            case BINARY_LSHIFT:
+            case BINARY_RSHIFT:
+            case BINARY_AND:
+            case BINARY_XOR:
+            case BINARY_OR:
+            case BINARY_ADD_INT:
+            case BINARY_SUBSCR_LIST_INT:
+            case COMPARE_OP:
+            case CONS_FUNLIST:
+            case BUILD_TUPLE:
+            case BUILD_LIST:
+            case BUILD_SET:
+            case BUILD_FUNLIST:
+            case BUILD_SLICE:
+            case CALL_FUNCTION:
+            case CALL_METHOD:
+                return stackInputs(opcode, operand);
+            default:
+                return -1;
+        }
+    }
+    
+    // Returns the number of values at the top of the operand stack that an
+    // instruction uses. All of them are taken off the stack, except by 
+    // DUP_TOP and DUP_TOP_TWO which only copy them. END_FINALLY takes one
+    // value or, when it is an exception, the exception and the two values
+    // below it (see PyVerifier).
+    public static int stackInputs(int opcode, int operand) {
+        switch (opcode) {
+            case POP_TOP:
+            case DUP_TOP:
+            case UNARY_POSITIVE:
+            case UNARY_NEGATIVE:
+            case UNARY_NOT:
+            case UNARY_INVERT:
+            case GET_ITER:
+            case PRINT_EXPR:
+            case RETURN_VALUE:
+            case YIELD_VALUE:
+            case IMPORT_STAR:
+            case END_FINALLY:
+            case WITH_CLEANUP:
+            case STORE_LOCALS:
+            case STORE_NAME:
+            case UNPACK_SEQUENCE:
+            case UNPACK_EX:
+            case DELETE_ATTR:
+            case STORE_GLOBAL:
+            case LOAD_ATTR:
+            case LOAD_METHOD:
+            case IMPORT_FROM:
+            case POP_JUMP_IF_TRUE:
+            case POP_JUMP_IF_FALSE:
+            case JUMP_IF_TRUE_OR_POP:
+            case JUMP_IF_FALSE_OR_POP:
+            case FOR_ITER:
+            case FOR_ITER_RANGE:
+            case SETUP_WITH:
+            case STORE_FAST:
+            case STORE_DEREF:
+            case RAISE_VARARGS:
+            case MAKE_FUNCTION:
+            case SELECT_FUNLIST:
+            case SELECT_TUPLE:
+                return 1;
+            case ROT_TWO:
+            case DUP_TOP_TWO:
+            case BINARY_POWER:
+            case BINARY_MULTIPLY:
+            case BINARY_FLOOR_DIVIDE:
+            case BINARY_TRUE_DIVIDE:
+            case BINARY_MODULO:
+            case BINARY_ADD:
+            case BINARY_SUBTRACT:
+            case BINARY_SUBSCR:
+            case BINARY_LSHIFT:
+            case BINARY_RSHIFT:
+            case BINARY_AND:
+            case BINARY_XOR:
+            case BINARY_OR:
+            case BINARY_ADD_INT:
+            case BINARY_SUBSCR_LIST_INT:
+            case INPLACE_POWER:
+            case INPLACE_MULTIPLY:
+            case INPLACE_FLOOR_DIVIDE:
+            case INPLACE_TRUE_DIVIDE:
+            case INPLACE_MODULO:
+            case INPLACE_ADD:
+            case INPLACE_SUBTRACT:
+            case INPLACE_LSHIFT:
+            case INPLACE_RSHIFT:
+            case INPLACE_AND:
+            case INPLACE_XOR:
+            case INPLACE_OR:
+            case DELETE_SUBSCR:
+            case STORE_ATTR:
+            case COMPARE_OP:
+            case IMPORT_NAME:
+            case MAKE_CLOSURE:
+            case CONS_FUNLIST:
+                return 2;
+            case ROT_THREE:
+            case STORE_SUBSCR:
+            case STORE_MAP:
+                return 3;
+            case SET_ADD:
+            case LIST_APPEND:
+                return operand + 1;
+            case MAP_ADD:
+                return operand + 2;
+            case BUILD_TUPLE:
+            case BUILD_LIST:
+            case BUILD_SET:
+            case BUILD_FUNLIST:
+            case BUILD_SLICE:
+                return operand;
+            case CALL_FUNCTION:
+                return operand + 1;
+            case CALL_METHOD:
+            case CALL_FUNCTION_VAR:
+            case CALL_FUNCTION_KW:
+                return operand + 2;
+            case CALL_FUNCTION_VAR_KW:
+                return operand + 3;
+            default:
+                return 0;
+        }
+    }
+    
+    // Returns the generic instruction that a quickened instruction is a 
+    // specialised form of. For a superinstruction it is the first instruction
+    // of its sequence. Any other instruction is returned unchanged.
+    public static int genericOf(int opcode) {
+        switch (opcode) {
+            case LOAD_FAST_LOAD_FAST:
+            case ADD_CONST_FAST:
+                return LOAD_FAST;
+            case BINARY_ADD_INT:
+                return BINARY_ADD;
+            case BINARY_SUBSCR_LIST_INT:
+                return BINARY_SUBSCR;
+            case FOR_ITER_RANGE:
+                return FOR_ITER;
+            default:
+                return opcode;
+        }
+    }
+    
+    // Returns true if the instruction has a target that execution may branch 
+    // to. The target is the operand of the instruction. 
+    public static boolean hasJump(int opcode) {
+        switch (opcode) {
+            case JUMP_FORWARD:
+            case JUMP_ABSOLUTE:
+            case POP_JUMP_IF_TRUE:
+            case POP_JUMP_IF_FALSE:
+            case JUMP_IF_TRUE_OR_POP:
+            case JUMP_IF_FALSE_OR_POP:
+            case FOR_ITER:
+            case FOR_ITER_RANGE:
+            case SETUP_WITH:
+            case SETUP_EXCEPT:
+            case SETUP_FINALLY:
+                return true;
+            default:
+                return false;
+        }
+    }
+    
+    // Returns true if execution never continues with the next instruction.
+    public static boolean endsBlock(int opcode) {
+        switch (opcode) {
+            case JUMP_FORWARD:
+            case JUMP_ABSOLUTE:
+            case RETURN_VALUE:
+            case RAISE_VARARGS:
+            case BREAK_LOOP:
+            case CONTINUE_LOOP:
+                return true;
+            default:
+                return false;
+        }
+    }
+    
+    // Returns the change in the depth of the block stack caused by executing
+    // an instruction. The handler of a SETUP_EXCEPT or SETUP_FINALLY is 
+    // entered with the implicit handler block in place of the setup block.
+    public static int blockEffect(int opcode) {
+        switch (opcode) {
+            case SETUP_LOOP:
+            case SETUP_WITH:
+            case SETUP_EXCEPT:
+            case SETUP_FINALLY:
+                return 1;
+            case POP_BLOCK:
+            case POP_EXCEPT:
+            case BREAK_LOOP:
+                return -1;
+            default:
+                return 0;
+        }
+    }
+    
+    // Packs the instructions of a function into the int array that PyFrame 
+    // executes. Instruction i occupies two slots, the opcode number at 2*i and 
+    // the operand at 2*i+1. Labels must already have been resolved to their 
+    // instruction index when this is called.
+    public static int[] encode(ArrayList<PyByteCode> instructions) {
+        int[] stream = new int[2 * instructions.size()];
+        
+        for (int i = 0; i < instructions.size(); i++) {
+            PyByteCode inst = instructions.get(i);
+            stream[2 * i] = inst.getOpCode().code();
+            stream[2 * i + 1] = inst.getOperand();
+        }
+        
+        return stream;
+    }
 
     public PyByteCode(String opcode)  {
         if (!OpCodeMap.containsKey(opcode)) {
@@ -13,6 +13,12 @@
  * The __call__ function is implemented by every object that is callable. This 
  * interface is necessary to get around the circular dependency introduced in 
  * PyObjectAdapter and PyCallableAdapter. 
+ * 
+ * __call__ is given its arguments in a list, in reverse order. Since most 
+ * calls pass only a few arguments, call0 through call3 call the object without
+ * building that list. Their arguments are given in the order they appear in 
+ * the call. The default versions build the list and call __call__, so a 
+ * callable only overrides the ones it can do better.
  */
 package jcoco;
 
@@ -22,4 +28,29 @@ import jcoco.PyException.ExceptionType;
 public interface PyCallable extends PyObject {
     
     public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) ;
+    
+    public default PyObject call0(PyCallStack callStack) {
+        return this.__call__(callStack, new ArrayList<PyObject>());
+    }
+    
+    public default PyObject call1(PyCallStack callStack, PyObject arg0) {
+        ArrayList<PyObject> args = new ArrayList<PyObject>(1);
+        args.add(arg0);
+        return this.__call__(callStack, args);
+    }
+    
+    public default PyObject call2(PyCallStack callStack, PyObject arg0, PyObject arg1) {
+        ArrayList<PyObject> args = new ArrayList<PyObject>(2);
+        args.add(arg1);
+        args.add(arg0);
+        return this.__call__(callStack, args);
+    }
+    
+    public default PyObject call3(PyCallStack callStack, PyObject arg0, PyObject arg1, PyObject arg2) {
+        ArrayList<PyObject> args = new ArrayList<PyObject>(3);
+        args.add(arg2);
+        args.add(arg1);
+        args.add(arg0);
+        return this.__call__(callStack, args);
+    }
 }
@@ -10,8 +10,8 @@
  * Description:
  * The class implementation of the PyCallable interface. 
  * 
- * This is used as a class that all PyCallable classes inherit from.This class is 
- * necessary to add the call method to the dictionary for the object. 
+ * This is used as a class that all PyCallable classes inherit from. This class 
+ * dispatches calls of the "__call__" method to the object's __call__. 
  */
 package jcoco;
 
@@ -21,13 +21,69 @@ import jcoco.PyException.ExceptionType;
 public class PyCallableAdapter extends PyObjectAdapter implements PyCallable {
 
     public PyCallableAdapter() {
-        PyCallableAdapter self = this;
-        this.dict.put("__call__", new PyBaseCallable() {
-            @Override
-            public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args)  {
-                return self.__call__(callStack, args);
-            }
-        });
+    }
+    
+    @Override
+    public PyObject callMethod(PyCallStack callStack, String name, ArrayList<PyObject> args) {
+        if (name.equals("__call__")) {
+            return this.__call__(callStack, args);
+        }
+        
+        return super.callMethod(callStack, name, args);
+    }
+    
+    @Override
+    public PyObject callMethod(PyCallStack callStack, String name) {
+        if (name.equals("__call__")) {
+            return this.call0(callStack);
+        }
+        
+        return super.callMethod(callStack, name);
+    }
+    
+    @Override
+    public PyObject callMethod(PyCallStack callStack, String name, PyObject arg) {
+        if (name.equals("__call__")) {
+            return this.call1(callStack, arg);
+        }
+        
+        return super.callMethod(callStack, name, arg);
+    }
+    
+    @Override
+    public PyObject callSlot(PyCallStack callStack, int slot) {
+        if (slot == PyType.SLOT_CALL) {
+            return this.call0(callStack);
+        }
+        
+        return super.callSlot(callStack, slot);
+    }
+    
+    @Override
+    public PyObject callSlot(PyCallStack callStack, int slot, PyObject arg) {
+        if (slot == PyType.SLOT_CALL) {
+            return this.call1(callStack, arg);
+        }
+        
+        return super.callSlot(callStack, slot, arg);
+    }
+    
+    @Override
+    public PyObject callSlot(PyCallStack callStack, int slot, PyObject arg1, PyObject arg2) {
+        if (slot == PyType.SLOT_CALL) {
+            return this.call2(callStack, arg1, arg2);
+        }
+        
+        return super.callSlot(callStack, slot, arg1, arg2);
+    }
+    
+    @Override
+    public PyObject callSlot(PyCallStack callStack, int slot, ArrayList<PyObject> args) {
+        if (slot == PyType.SLOT_CALL) {
+            return this.__call__(callStack, args);
+        }
+        
+        return super.callSlot(callStack, slot, args);
     }
     
     @Override
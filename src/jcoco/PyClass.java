@@ -13,16 +13,28 @@
  * On initialization, each PyObject in the classesandfuns is either a PyCode or PyClass
  * object from the PyParser. They get added as such to the dictionary for the class.
  * 
- * When the class is called, a class instance is created as a PyObject. At this
- * point, the code stored in the dictionary is used to create a PyMethod which is
- * stored in the dictionary of the class instance object. All other attributes that
- * are not methods are simply added to the dictionary of the class instance object.
+ * When the class is called, a class instance is created as a PyObjectInst and
+ * its __init__ method is called. The methods stay in the dictionary of the class.
+ * They are found by getInstanceFun, which looks in the class and then in its base
+ * classes, and are passed the instance as self when they are called. A PyMethod 
+ * binding a method to an instance is only created when the method is retrieved 
+ * as an attribute without being called (see PyObjectAdapter.get).
+ *
+ * So that a method is not searched for level by level through the base classes
+ * every time, each class keeps a flattened table of the methods of its 
+ * instances. It holds the functions of the class and, for those it does not 
+ * define, the functions of its base classes. The table is built when it is 
+ * first needed and is rebuilt after a function is stored in, replaced in, or 
+ * removed from the dictionary of any class, which is counted by 
+ * methodsVersion. The base class is looked up by name in the globals once and
+ * then kept.
  */
 
 package jcoco;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map;
 import jcoco.PyException.ExceptionType;
 import jcoco.PyType.PyTypeId;
 
@@ -31,6 +43,58 @@ public class PyClass extends PyType {
     private String baseClass;
     private ArrayList<PyObject> classesandfuns;
     private HashMap<String, PyObject> globals;
+    private final PyShape instanceShape = new PyShape();
+    private PyClass base = null;
+    private HashMap<String, PyCallable> methods = null;
+    private long methodsBuiltAt = 0;
+    private long slotsBuiltAt = 0;
+    private static long methodsVersion = 1;
+    
+    // The dictionary of a class. Storing, replacing, or removing a function in
+    // it changes methodsVersion so the method tables are rebuilt.
+    private static class ClassDict extends HashMap<String, PyObject> {
+
+        private static final long serialVersionUID = 1L;
+
+        private static boolean isFun(Object value) {
+            return value instanceof PyObject && ((PyObject) value).getType().typeId() == PyTypeId.PyFunctionType;
+        }
+
+        @Override
+        public PyObject put(String key, PyObject value) {
+            PyObject old = super.put(key, value);
+
+            if (isFun(value) || isFun(old)) {
+                methodsVersion++;
+            }
+
+            return old;
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ? extends PyObject> m) {
+            for (Map.Entry<? extends String, ? extends PyObject> e : m.entrySet()) {
+                this.put(e.getKey(), e.getValue());
+            }
+        }
+
+        @Override
+        public PyObject remove(Object key) {
+            PyObject old = super.remove(key);
+
+            if (isFun(old)) {
+                methodsVersion++;
+            }
+
+            return old;
+        }
+
+        @Override
+        public void clear() {
+            methodsVersion++;
+            super.clear();
+        }
+    }
     
     public PyClass(String name, ArrayList<PyObject> nestedclassesandfuns, String baseClass, HashMap<String, PyObject> globals)  {
         super(name, PyTypeId.PyClassType);
@@ -38,6 +102,7 @@ public class PyClass extends PyType {
         this.name = name;
         this.classesandfuns = nestedclassesandfuns;
         this.globals = (HashMap<String, PyObject>)globals;
+        this.attrs = new ClassDict();
 
         // This attribute is assumed for class instantiation, and probably by all types. 
         this.attrs.put("__name__", new PyStr(name));
@@ -68,12 +133,33 @@ public class PyClass extends PyType {
         }
     }
     
-    public PyObject getBaseClass() {
-        return globals.get(baseClass);
+    // The version changes whenever the methods of some class may have changed.
+    // Anything that remembers a method found through getInstanceFun, like a
+    // PyAttrCache, is only valid while the version stays the same.
+    public static long getMethodsVersion() {
+        return methodsVersion;
+    }
+    
+    // Returns the base class, or null if the class has none. 
+    public PyClass getBaseClass() {
+        if (this.base == null && !this.baseClass.equals("")) {
+            PyObject cls = this.globals.get(this.baseClass);
+
+            if (!(cls instanceof PyClass)) {
+                throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                        "TypeError: base class " + this.baseClass + " of " + this.name + " is not a class");
+            }
+
+            this.base = (PyClass) cls;
+        }
+
+        return this.base;
     }
     
     public void setGlobals(HashMap<String, PyObject> globals) {
         this.globals = globals;
+        this.base = null;
+        methodsVersion++;
     }
     
     public ArrayList<PyObject>  getClassesAndFuns() {
@@ -84,6 +170,13 @@ public class PyClass extends PyType {
         return this.name;
     }
     
+    // The shape of an instance of this class that has no attributes yet. 
+    // Instances that are given the same attributes in the same order end up 
+    // with the same shape (see PyShape).
+    public PyShape getInstanceShape() {
+        return this.instanceShape;
+    }
+    
     public String callName() {
         return this.getName();
     }
@@ -111,26 +204,105 @@ public class PyClass extends PyType {
         return ss.toString();
     }
     
-    public void initInstance(PyObjectAdapter obj)  {
-        // The following lines are needed to support inheritance. We 
-        // start by initializing base classes because subclasses should
-        // override base classes. 
-        if (!baseClass.equals("")) {
-            ((PyClass)globals.get(baseClass)).initInstance(obj);
+    // Returns the flattened table of the methods of the instances of this 
+    // class, building it again if a class dictionary has changed since it was
+    // built. A subclass' function overrides a base class' function of the 
+    // same name, so the functions of the class are put over those of its base.
+    private HashMap<String, PyCallable> methods() {
+        if (this.methods == null || this.methodsBuiltAt != methodsVersion) {
+            PyClass baseCls = this.getBaseClass();
+            HashMap<String, PyCallable> table;
+
+            if (baseCls == null) {
+                table = new HashMap<String, PyCallable>();
+            } else {
+                table = new HashMap<String, PyCallable>(baseCls.methods());
+            }
+
+            for (Map.Entry<String, PyObject> e : this.attrs.entrySet()) {
+                if (e.getValue().getType().typeId() == PyTypeId.PyFunctionType) {
+                    table.put(e.getKey(), (PyCallable) e.getValue());
+                }
+            }
+
+            this.methods = table;
+            this.methodsBuiltAt = methodsVersion;
+        }
+
+        return this.methods;
+    }
+    
+    // The methods of the instances of a class are the functions of the class
+    // and its base classes (see methods) and then the methods every object has.
+    @Override
+    public PyCallable getInstanceFun(String name) {
+        PyCallable fun = this.methods().get(name);
+        
+        if (fun != null) {
+            return fun;
         }
         
-        for (String name : this.attrs.keySet()) {
-            if (this.attrs.get(name).getType().typeId() == PyTypeId.PyFunctionType) {
-                obj.dict.put(name, new PyMethod(name, obj, (PyCallable)this.attrs.get(name)));
-            }
-        }  
+        return super.getInstanceFun(name);
+    }
+    
+    // The slots are filled again from the method table when it changes, so a
+    // special method like __add__ defined in the class is called through them.
+    @Override
+    public PyCallable getSlot(int slot) {
+        if (this.slots == null || this.slotsBuiltAt != methodsVersion) {
+            this.slots = this.fillSlots();
+            this.slotsBuiltAt = methodsVersion;
+        }
+        
+        return this.slots[slot];
+    }
+    
+    private PyCallable initFun() {
+        PyCallable init = this.getInstanceFun("__init__");
+        
+        if (init == null) {
+            throw new PyException(ExceptionType.PYATTRERROR, 
+                                    "AttributeError: '" + this.name + "' object has no attribute '__init__'");
+        }
+        
+        return init;
     }
     
     @Override
     public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args)  {       
-        PyObjectAdapter obj = new PyObjectInst(this);
-        initInstance(obj);
-        ((PyMethod) obj.dict.get("__init__")).__call__(callStack, args);
+        PyObjectInst obj = new PyObjectInst(this);
+        PyCallable init = this.initFun();
+        
+        // The new object is self, which is the last argument. The caller's
+        // list is left as it was.
+        ArrayList<PyObject> initArgs = new ArrayList<PyObject>(args.size() + 1);
+        initArgs.addAll(args);
+        initArgs.add(obj);
+        init.__call__(callStack, initArgs);
+        
+        return obj;
+    }
+    
+    @Override
+    public PyObject call0(PyCallStack callStack) {
+        PyObjectInst obj = new PyObjectInst(this);
+        this.initFun().call1(callStack, obj);
+        
+        return obj;
+    }
+    
+    @Override
+    public PyObject call1(PyCallStack callStack, PyObject arg0) {
+        PyObjectInst obj = new PyObjectInst(this);
+        this.initFun().call2(callStack, obj, arg0);
+        
+        return obj;
+    }
+    
+    @Override
+    public PyObject call2(PyCallStack callStack, PyObject arg0, PyObject arg1) {
+        PyObjectInst obj = new PyObjectInst(this);
+        this.initFun().call3(callStack, obj, arg0, arg1);
         
         return obj;
     }
@@ -0,0 +1,411 @@
+/**
+ * PyClassWriter.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * A PyClassWriter assembles a JVM class file for PyCompiler. It knows just
+ * enough of the class file format for the classes PyCompiler generates: a
+ * constant pool of strings, ints, classes, fields, and methods, and methods
+ * whose code is written one JVM instruction at a time with labels for the
+ * branches and an exception table.
+ *
+ * The class files are version 49 (Java 5), which the JVM verifies by type
+ * inference. Later versions must describe the types on the stack and in the
+ * locals at every branch target in a StackMapTable, which would have to be
+ * computed here as well.
+ *
+ * The writer keeps track of the depth of the JVM operand stack as the
+ * instructions are written to find the max_stack of each method. Every
+ * branch that PyCompiler writes is taken with an empty JVM stack, so the
+ * depth is simply set back to 0 after an instruction that does not continue
+ * with the next one.
+ */
+package jcoco;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+class PyClassWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    static final int ACONST_NULL = 0x01;
+    static final int ICONST_0 = 0x03;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC_W = 0x13;
+    static final int ILOAD = 0x15;
+    static final int ALOAD = 0x19;
+    static final int AALOAD = 0x32;
+    static final int ISTORE = 0x36;
+    static final int ASTORE = 0x3a;
+    static final int AASTORE = 0x53;
+    static final int POP = 0x57;
+    static final int DUP = 0x59;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9a;
+    static final int IF_ICMPNE = 0xa0;
+    static final int GOTO = 0xa7;
+    static final int ARETURN = 0xb0;
+    static final int RETURN = 0xb1;
+    static final int GETFIELD = 0xb4;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int ANEWARRAY = 0xbd;
+    static final int ATHROW = 0xbf;
+    static final int IFNULL = 0xc6;
+    static final int WIDE = 0xc4;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAMEANDTYPE = 12;
+
+    private final String name;
+    private final String superName;
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final HashMap<String, Integer> poolIndexes = new HashMap<String, Integer>();
+    private int poolCount = 1;
+    private final ArrayList<byte[]> methods = new ArrayList<byte[]>();
+
+    // The method being written.
+    private int access;
+    private String methodName;
+    private String descriptor;
+    private int maxLocals;
+    private ByteArrayOutputStream code;
+    private int stack;
+    private int maxStack;
+    private final ArrayList<Integer> labels = new ArrayList<Integer>();
+    private final ArrayList<int[]> branches = new ArrayList<int[]>();
+    private final ArrayList<int[]> handlers = new ArrayList<int[]>();
+
+    // The names are internal names (e.g. jcoco/PyObject).
+    public PyClassWriter(String name, String superName) {
+        this.name = name;
+        this.superName = superName;
+    }
+
+    // Returns the index of a constant pool entry, adding it first if the
+    // pool does not have it yet. The key identifies the entry and the bytes
+    // are written for it when it is added.
+    private int entry(String key, int tag, int a, int b, String utf8) {
+        Integer index = this.poolIndexes.get(key);
+
+        if (index != null) {
+            return index;
+        }
+
+        try {
+            this.pool.writeByte(tag);
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    this.pool.writeUTF(utf8);
+                    break;
+                case CONSTANT_INTEGER:
+                    this.pool.writeInt(a);
+                    break;
+                case CONSTANT_CLASS:
+                    this.pool.writeShort(a);
+                    break;
+                default:
+                    this.pool.writeShort(a);
+                    this.pool.writeShort(b);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        index = this.poolCount++;
+        this.poolIndexes.put(key, index);
+
+        return index;
+    }
+
+    private int utf8(String s) {
+        return this.entry("U" + s, CONSTANT_UTF8, 0, 0, s);
+    }
+
+    private int classRef(String internalName) {
+        return this.entry("C" + internalName, CONSTANT_CLASS, this.utf8(internalName), 0, null);
+    }
+
+    private int memberRef(int tag, String owner, String member, String desc) {
+        int nameAndType = this.entry("N" + member + ":" + desc, CONSTANT_NAMEANDTYPE, this.utf8(member), this.utf8(desc), null);
+        return this.entry(tag + owner + "." + member + ":" + desc, tag, this.classRef(owner), nameAndType, null);
+    }
+
+    // Returns the number of argument slots of a method descriptor. Only int
+    // and reference arguments are used in the classes written here.
+    private static int argCount(String desc) {
+        int count = 0;
+        int i = 1;
+
+        while (desc.charAt(i) != ')') {
+            while (desc.charAt(i) == '[') {
+                i++;
+            }
+
+            if (desc.charAt(i) == 'L') {
+                i = desc.indexOf(';', i);
+            }
+
+            i++;
+            count++;
+        }
+
+        return count;
+    }
+
+    public void beginMethod(int access, String name, String descriptor, int maxLocals) {
+        this.access = access;
+        this.methodName = name;
+        this.descriptor = descriptor;
+        this.maxLocals = maxLocals;
+        this.code = new ByteArrayOutputStream();
+        this.stack = 0;
+        this.maxStack = 0;
+        this.labels.clear();
+        this.branches.clear();
+        this.handlers.clear();
+    }
+
+    private void adjust(int delta) {
+        this.stack += delta;
+        this.maxStack = Math.max(this.maxStack, this.stack);
+    }
+
+    private void u1(int b) {
+        this.code.write(b);
+    }
+
+    private void u2(int s) {
+        this.code.write(s >> 8);
+        this.code.write(s);
+    }
+
+    public int newLabel() {
+        this.labels.add(-1);
+        return this.labels.size() - 1;
+    }
+
+    public void mark(int label) {
+        this.labels.set(label, this.code.size());
+    }
+
+    // Sets the depth of the JVM stack where the code continues at a label
+    // that is not reached by the instruction before it, like the start of an
+    // exception handler, which is entered with the exception on the stack.
+    public void setStack(int depth) {
+        this.stack = depth;
+        this.maxStack = Math.max(this.maxStack, depth);
+    }
+
+    public void insn(int opcode) {
+        this.u1(opcode);
+
+        switch (opcode) {
+            case ACONST_NULL:
+            case DUP:
+                this.adjust(1);
+                break;
+            case POP:
+            case AALOAD:
+                this.adjust(-1);
+                break;
+            case AASTORE:
+                this.adjust(-3);
+                break;
+            case ARETURN:
+            case ATHROW:
+            case RETURN:
+                this.stack = 0;
+                break;
+        }
+    }
+
+    public void iconst(int value) {
+        if (value >= -1 && value <= 5) {
+            this.u1(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            this.u1(BIPUSH);
+            this.u1(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            this.u1(SIPUSH);
+            this.u2(value);
+        } else {
+            this.u1(LDC_W);
+            this.u2(this.entry("I" + value, CONSTANT_INTEGER, value, 0, null));
+        }
+
+        this.adjust(1);
+    }
+
+    private void local(int opcode, int index) {
+        if (index > 255) {
+            this.u1(WIDE);
+            this.u1(opcode);
+            this.u2(index);
+        } else {
+            this.u1(opcode);
+            this.u1(index);
+        }
+    }
+
+    public void aload(int index) {
+        this.local(ALOAD, index);
+        this.adjust(1);
+    }
+
+    public void iload(int index) {
+        this.local(ILOAD, index);
+        this.adjust(1);
+    }
+
+    public void astore(int index) {
+        this.local(ASTORE, index);
+        this.adjust(-1);
+    }
+
+    public void istore(int index) {
+        this.local(ISTORE, index);
+        this.adjust(-1);
+    }
+
+    public void anewarray(String internalName) {
+        this.u1(ANEWARRAY);
+        this.u2(this.classRef(internalName));
+    }
+
+    public void getfield(String owner, String field, String desc) {
+        this.u1(GETFIELD);
+        this.u2(this.memberRef(CONSTANT_FIELDREF, owner, field, desc));
+    }
+
+    public void invoke(int opcode, String owner, String method, String desc) {
+        this.u1(opcode);
+        this.u2(this.memberRef(CONSTANT_METHODREF, owner, method, desc));
+        this.adjust(-argCount(desc) - (opcode == INVOKESTATIC ? 0 : 1) + (desc.endsWith(")V") ? 0 : 1));
+    }
+
+    // Writes a branch to a label. The offset is filled in by endMethod once
+    // all the labels are placed.
+    public void jump(int opcode, int label) {
+        this.branches.add(new int[]{this.code.size(), label});
+        this.u1(opcode);
+        this.u2(0);
+
+        switch (opcode) {
+            case GOTO:
+                this.stack = 0;
+                break;
+            case IF_ICMPNE:
+                this.adjust(-2);
+                break;
+            default:
+                this.adjust(-1);
+        }
+    }
+
+    // Adds an exception handler for the code from the start label up to the
+    // end label. A catchType of null catches everything.
+    public void handler(int start, int end, int handler, String catchType) {
+        this.handlers.add(new int[]{start, end, handler, catchType == null ? 0 : this.classRef(catchType)});
+    }
+
+    // Finishes the method. An IllegalStateException is thrown if the code is
+    // too large for the offsets of its branches.
+    public void endMethod() {
+        byte[] bytes = this.code.toByteArray();
+
+        if (bytes.length >= 65535) {
+            throw new IllegalStateException("code too large");
+        }
+
+        for (int[] branch : this.branches) {
+            int offset = this.labels.get(branch[1]) - branch[0];
+
+            if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                throw new IllegalStateException("branch too far");
+            }
+
+            bytes[branch[0] + 1] = (byte) (offset >> 8);
+            bytes[branch[0] + 2] = (byte) offset;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(out);
+
+        try {
+            data.writeShort(this.access);
+            data.writeShort(this.utf8(this.methodName));
+            data.writeShort(this.utf8(this.descriptor));
+            data.writeShort(1);
+            data.writeShort(this.utf8("Code"));
+            data.writeInt(12 + bytes.length + 8 * this.handlers.size());
+            data.writeShort(this.maxStack);
+            data.writeShort(this.maxLocals);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+            data.writeShort(this.handlers.size());
+
+            for (int[] h : this.handlers) {
+                data.writeShort(this.labels.get(h[0]));
+                data.writeShort(this.labels.get(h[1]));
+                data.writeShort(this.labels.get(h[2]));
+                data.writeShort(h[3]);
+            }
+
+            data.writeShort(0);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        this.methods.add(out.toByteArray());
+    }
+
+    public byte[] toByteArray() {
+        int thisClass = this.classRef(this.name);
+        int superClass = this.classRef(this.superName);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(out);
+
+        try {
+            data.writeInt(0xCAFEBABE);
+            data.writeShort(0);
+            data.writeShort(49);
+            data.writeShort(this.poolCount);
+            data.write(this.poolBytes.toByteArray());
+            data.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            data.writeShort(thisClass);
+            data.writeShort(superClass);
+            data.writeShort(0);
+            data.writeShort(0);
+            data.writeShort(this.methods.size());
+
+            for (byte[] method : this.methods) {
+                data.write(method);
+            }
+
+            data.writeShort(0);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        return out.toByteArray();
+    }
+}
@@ -24,6 +24,26 @@
  * 
  * Globals - The list of globals like "str" and other functions that are 
  * defined globally and used in this function.
+ * 
+ * The instructions are kept as PyByteCode objects for printing. The PyParser
+ * creates each PyCode once the labels of its instructions are resolved, and
+ * at that time they are also packed into an int array (the code stream) of 
+ * opcode and operand pairs which is what PyFrame actually executes. The 
+ * largest operand stack and block stack depths of the code are computed then
+ * too so each PyFrame can allocate its stacks once.
+ * 
+ * Each LOAD_GLOBAL instruction has an inline cache here, indexed by the 
+ * instruction's position in the code stream. It holds the object the 
+ * instruction last loaded and the version of the globals it came from (see 
+ * PyNamespace). LOAD_ATTR and STORE_ATTR instructions get a PyAttrCache the
+ * first time they are executed.
+ * 
+ * The calls of the code and the jumps back to the tops of its loops are
+ * counted. When there have been HOT_CALLS calls or HOT_BACK_EDGES jumps, the
+ * code is compiled to a JVM class (see PyCompiler) which runs the calls from
+ * then on. Code that raises MAX_COMPILED_EXCEPTIONS exceptions from compiled
+ * code goes back to being interpreted, since the interpreter handles them as
+ * well and costs nothing to keep running.
  */
 package jcoco;
 
@@ -41,6 +61,23 @@ class PyCode  extends PyObjectAdapter {
     private ArrayList<String> globals;
     private ArrayList<PyObject> consts;
     private ArrayList<PyByteCode> instructions;
+    private int[] codeStream;
+    private int[] debugStream = null;
+    private byte[] deopts = null;
+    private static final int MAX_DEOPTS = 8;
+    private static final int HOT_CALLS = 1000;
+    private static final int HOT_BACK_EDGES = 10000;
+    private static final int MAX_COMPILED_EXCEPTIONS = 64;
+    private int calls = 0;
+    private int backEdges = 0;
+    private int compiledExceptions = 0;
+    private boolean compilable = true;
+    private PyCompiledCode compiled = null;
+    private int maxStackDepth;
+    private int maxBlockDepth;
+    private final PyObject[] globalCacheValues;
+    private final long[] globalCacheVersions;
+    private final PyAttrCache[] attrCaches;
     private int argCount;
     
     public PyCode(String name, ArrayList<PyObject> nestedClassFunctionList, ArrayList<PyObject> constants, ArrayList<String> locals, ArrayList<String> freevars, ArrayList<String> cellvars, ArrayList<String> globals, ArrayList<PyByteCode> instructions, int argCount) {
@@ -51,6 +88,11 @@ class PyCode  extends PyObjectAdapter {
         this.globals = globals;
         this.consts = constants;
         this.instructions = instructions;
+        this.codeStream = PyByteCode.encode(instructions);
+        this.computeStackDepths();
+        this.globalCacheValues = new PyObject[instructions.size()];
+        this.globalCacheVersions = new long[instructions.size()];
+        this.attrCaches = new PyAttrCache[instructions.size()];
         this.argCount = argCount;
         this.nestedClassFunctions = nestedClassFunctionList;
     }
@@ -87,6 +129,168 @@ class PyCode  extends PyObjectAdapter {
         return this.instructions;
     }
     
+    public int[] getCodeStream() {
+        return this.codeStream;
+    }
+    
+    // Quickening replaces the instruction at pc in the code stream with a 
+    // specialised form of it (e.g. BINARY_ADD_INT for BINARY_ADD) once the 
+    // interpreter has seen operands of the types that form is for. The 
+    // specialised instruction checks that its operands still have those types
+    // and, when they do not, calls deoptimize to put the instruction as it was
+    // loaded back. An instruction that has been deoptimized MAX_DEOPTS times 
+    // is not quickened again.
+    public void quicken(int pc, int opcode) {
+        if (JCoCo.optimize && (this.deopts == null || this.deopts[pc] < MAX_DEOPTS)) {
+            this.codeStream[2 * pc] = opcode;
+        }
+    }
+    
+    // Puts the generic instruction back at pc and returns its opcode.
+    public int deoptimize(int pc) {
+        if (this.deopts == null) {
+            this.deopts = new byte[this.codeStream.length / 2];
+        }
+        
+        if (this.deopts[pc] < MAX_DEOPTS) {
+            this.deopts[pc]++;
+        }
+        
+        int opcode = PyByteCode.genericOf(this.instructions.get(pc).getOpCode().code());
+        this.codeStream[2 * pc] = opcode;
+        
+        return opcode;
+    }
+    
+    // Returns the stream frames run while the debugger is stepping. It has 
+    // DEBUG_STEP in place of every opcode, so the debugger is entered before 
+    // each instruction, which is then executed from the code stream.
+    public int[] getDebugStream() {
+        if (this.debugStream == null) {
+            this.debugStream = this.codeStream.clone();
+            for (int i = 0; i < this.debugStream.length; i += 2) {
+                this.debugStream[i] = PyByteCode.DEBUG_STEP;
+            }
+        }
+        
+        return this.debugStream;
+    }
+    
+    // Counts a call of the code and returns the compiled code to run it with
+    // or null if it is to be interpreted.
+    PyCompiledCode countCall() {
+        if (this.compilable && ++this.calls >= HOT_CALLS) {
+            this.compile();
+        }
+
+        return this.compiled;
+    }
+
+    // Counts a jump back to the top of a loop and returns true if the code is
+    // compiled, so the rest of the loop can be run by the compiled code.
+    boolean countBackEdge() {
+        if (this.compilable && ++this.backEdges >= HOT_BACK_EDGES) {
+            this.compile();
+        }
+
+        return this.compiled != null;
+    }
+
+    // The code is compiled at most once, whether or not that succeeds.
+    private void compile() {
+        this.compilable = false;
+
+        if (JCoCo.optimize && JCoCo.jit && !JCoCo.stepOverInstructions) {
+            this.compiled = PyCompiler.compile(this);
+        }
+    }
+
+    PyCompiledCode getCompiled() {
+        return this.compiled;
+    }
+
+    void countCompiledException() {
+        if (++this.compiledExceptions >= MAX_COMPILED_EXCEPTIONS) {
+            this.compiled = null;
+        }
+    }
+
+    public int getMaxStackDepth() {
+        return this.maxStackDepth;
+    }
+    
+    public int getMaxBlockDepth() {
+        return this.maxBlockDepth;
+    }
+    
+    public PyObject[] getGlobalCacheValues() {
+        return this.globalCacheValues;
+    }
+    
+    public long[] getGlobalCacheVersions() {
+        return this.globalCacheVersions;
+    }
+    
+    public PyAttrCache getAttrCache(int pc) {
+        PyAttrCache cache = this.attrCaches[pc];
+        
+        if (cache == null) {
+            cache = new PyAttrCache();
+            this.attrCaches[pc] = cache;
+        }
+        
+        return cache;
+    }
+    
+    // Follows every path through the code stream, starting with empty stacks,
+    // to find the deepest the operand and block stacks get. Each instruction 
+    // is visited once, with the depths of the first path that reaches it. The
+    // target of a BREAK_LOOP is also reached by the end of its loop, so it 
+    // does not need to be followed. PyFrame grows its stacks should some
+    // unusual code go deeper than this.
+    private void computeStackDepths() {
+        int count = this.codeStream.length / 2;
+        int[] depth = new int[count];
+        int[] blocks = new int[count];
+        boolean[] visited = new boolean[count];
+        int[] worklist = new int[count];
+        int pending = 0;
+        
+        if (count > 0) {
+            visited[0] = true;
+            worklist[pending++] = 0;
+        }
+        
+        while (pending > 0) {
+            int pc = worklist[--pending];
+            int opcode = this.codeStream[2 * pc];
+            int operand = this.codeStream[2 * pc + 1];
+            int next = depth[pc] + PyByteCode.stackEffect(opcode, operand, false);
+            int nextBlocks = blocks[pc] + PyByteCode.blockEffect(opcode);
+            
+            this.maxStackDepth = Math.max(this.maxStackDepth, Math.max(depth[pc], next));
+            this.maxBlockDepth = Math.max(this.maxBlockDepth, nextBlocks);
+            
+            if (PyByteCode.hasJump(opcode) && operand >= 0 && operand < count && !visited[operand]) {
+                visited[operand] = true;
+                depth[operand] = depth[pc] + PyByteCode.stackEffect(opcode, operand, true);
+                blocks[operand] = nextBlocks;
+                worklist[pending++] = operand;
+            }
+            
+            if (!PyByteCode.endsBlock(opcode) && pc + 1 < count && !visited[pc + 1]) {
+                visited[pc + 1] = true;
+                depth[pc + 1] = next;
+                blocks[pc + 1] = nextBlocks;
+                worklist[pending++] = pc + 1;
+            }
+        }
+        
+        for (int pc = 0; pc < count; pc++) {
+            this.maxStackDepth = Math.max(this.maxStackDepth, depth[pc]);
+        }
+    }
+    
     public int getArgCount() {
         return this.argCount;
     }
@@ -174,7 +378,16 @@ class PyCode  extends PyObjectAdapter {
                 }
             }
 
-            ss.append(indent+this.instructions.get(i).toString()+"\n");
+            PyByteCode inst = this.instructions.get(i);
+            int opcode = this.codeStream[2 * i];
+
+            //The listing -v prints, which has no line numbers, also shows the
+            //superinstructions the optimizer put in the code stream.
+            if (!lineNumbers && (opcode == PyByteCode.LOAD_FAST_LOAD_FAST || opcode == PyByteCode.ADD_CONST_FAST)) {
+                inst = new PyByteCode(PyByteCode.opCodeName(opcode), inst.getOperand());
+            }
+
+            ss.append(indent+inst.toString()+"\n");
         }
         
         ss.append(indent);
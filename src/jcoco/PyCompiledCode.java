@@ -0,0 +1,366 @@
+/**
+ * PyCompiledCode.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * PyCompiledCode is the superclass of the JVM classes that PyCompiler
+ * generates for hot PyCode objects. The run method of a generated class
+ * executes the instructions of its code for a PyFrame, keeping the values of
+ * the operand stack in local variables of the JVM method instead of in the
+ * opStack of the frame.
+ *
+ * The generated classes are defined by a class loader of their own, so they
+ * are not in the same run-time package as the rest of JCoCo even though
+ * their names start with jcoco. They can only use what is public or
+ * protected here and in the public classes. That is why the frame is passed
+ * to run as a PyObject and the instructions call the static methods below
+ * for anything beyond moving values between locals. Each of these does what
+ * its instruction does in PyFrame.execute. They are small, so the JVM inlines
+ * them into the generated code once it is hot.
+ *
+ * run is called with the frame already on the call stack. The code starts at
+ * the instruction given by entry, which is 0 for a call. PyFrame.execute
+ * starts it at the top of a loop when the loop became hot while the frame was
+ * being interpreted, and passes the values on its operand stack in stack.
+ * RETURN_VALUE pops the frame off the call stack. When an exception leaves
+ * the code, failed sets the PC of the frame to the instruction that raised it
+ * and adds the frame to the traceback, as PyFrame.execute does.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import jcoco.PyException.ExceptionType;
+import jcoco.PyType.PyTypeId;
+
+public abstract class PyCompiledCode {
+
+    // The constants of the code, set by PyCompiler.
+    protected PyObject[] consts;
+
+    public abstract PyObject run(PyCallStack callStack, PyObject[] locals, PyObject frame, int entry, PyObject[] stack);
+
+    protected static PyObject local(PyObject value, PyObject frame, int index) {
+        if (value == null) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "NameError: name '" + ((PyFrame) frame).getCode().getLocals().get(index) + "' is not defined");
+        }
+
+        return value;
+    }
+
+    protected static PyObject loadGlobal(PyObject frame, int pc, int operand) {
+        PyFrame f = (PyFrame) frame;
+        PyCode code = f.getCode();
+        PyNamespace namespace = f.getGlobals() instanceof PyNamespace ? (PyNamespace) f.getGlobals() : null;
+
+        if (namespace != null && code.getGlobalCacheVersions()[pc] == namespace.getVersion()) {
+            return code.getGlobalCacheValues()[pc];
+        }
+
+        PyObject u = f.getGlobals().get(code.getGlobals().get(operand));
+
+        if (u == null) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "NameError: name '" + code.getGlobals().get(operand) + "' is not defined");
+        }
+
+        if (namespace != null) {
+            code.getGlobalCacheValues()[pc] = u;
+            code.getGlobalCacheVersions()[pc] = namespace.getVersion();
+        }
+
+        return u;
+    }
+
+    // The comparison, conditional jump, and arithmetic instructions are done
+    // by the same helpers in PyFrame that the interpreter calls. They are not
+    // public, so the compiled classes call them through these.
+    protected static PyObject compare(PyCallStack callStack, int op, PyObject u, PyObject v) {
+        return PyFrame.compare(callStack, op, u, v);
+    }
+
+    protected static boolean jumpIfTrue(PyObject u) {
+        return PyFrame.jumpIfTrue(u);
+    }
+
+    protected static boolean jumpIfFalse(PyObject u) {
+        return PyFrame.jumpIfFalse(u);
+    }
+
+    protected static PyObject add(PyCallStack callStack, PyObject u, PyObject v) {
+        return PyFrame.add(callStack, u, v);
+    }
+
+    protected static PyObject subtract(PyCallStack callStack, PyObject u, PyObject v) {
+        return PyFrame.subtract(callStack, u, v);
+    }
+
+    protected static PyObject multiply(PyCallStack callStack, PyObject u, PyObject v) {
+        return PyFrame.multiply(callStack, u, v);
+    }
+
+    protected static PyObject floorDivide(PyCallStack callStack, PyObject u, PyObject v) {
+        return PyFrame.floorDivide(callStack, u, v);
+    }
+
+    protected static PyObject trueDivide(PyCallStack callStack, PyObject u, PyObject v) {
+        return PyFrame.trueDivide(callStack, u, v);
+    }
+
+    protected static PyObject modulo(PyCallStack callStack, PyObject u, PyObject v) {
+        return PyFrame.modulo(callStack, u, v);
+    }
+
+    protected static PyObject power(PyCallStack callStack, PyObject u, PyObject v) {
+        return PyFrame.power(callStack, u, v);
+    }
+
+    protected static PyObject getItem(PyCallStack callStack, PyObject container, PyObject index) {
+        return container.callSlot(callStack, PyType.SLOT_GETITEM, index);
+    }
+
+    protected static void setItem(PyCallStack callStack, PyObject container, PyObject index, PyObject value) {
+        container.callSlot(callStack, PyType.SLOT_SETITEM, index, value);
+    }
+
+    protected static PyObject iter(PyCallStack callStack, PyObject u) {
+        return u.callSlot(callStack, PyType.SLOT_ITER);
+    }
+
+    // Returns the next value of an iterator or null when it has no more.
+    protected static PyObject next(PyCallStack callStack, PyObject u) {
+        if (u instanceof PyIterator) {
+            return ((PyIterator) u).nextOrNull();
+        }
+
+        try {
+            return u.callSlot(callStack, PyType.SLOT_NEXT);
+        } catch (PyException ex) {
+            if (ex.getExceptionType() == ExceptionType.PYSTOPITERATIONEXCEPTION) {
+                return null;
+            }
+
+            throw ex;
+        }
+    }
+
+    // The calls are made as PyFrame.callFromStack makes them. A method bound
+    // to a function is called with self as its first argument.
+    protected static PyObject call(PyCallStack callStack, PyObject fn) {
+        if (fn instanceof PyMethod && ((PyMethod) fn).getFun() instanceof PyFunction) {
+            return ((PyMethod) fn).getFun().call1(callStack, ((PyMethod) fn).getSelf());
+        }
+
+        if (fn instanceof PyCallable) {
+            return ((PyCallable) fn).call0(callStack);
+        }
+
+        return callList(callStack, fn, new PyObject[0]);
+    }
+
+    protected static PyObject call(PyCallStack callStack, PyObject fn, PyObject a) {
+        if (fn instanceof PyMethod && ((PyMethod) fn).getFun() instanceof PyFunction) {
+            return ((PyMethod) fn).getFun().call2(callStack, ((PyMethod) fn).getSelf(), a);
+        }
+
+        if (fn instanceof PyCallable) {
+            return ((PyCallable) fn).call1(callStack, a);
+        }
+
+        return callList(callStack, fn, new PyObject[]{a});
+    }
+
+    protected static PyObject call(PyCallStack callStack, PyObject fn, PyObject a, PyObject b) {
+        if (fn instanceof PyMethod && ((PyMethod) fn).getFun() instanceof PyFunction) {
+            return ((PyMethod) fn).getFun().call3(callStack, ((PyMethod) fn).getSelf(), a, b);
+        }
+
+        if (fn instanceof PyCallable) {
+            return ((PyCallable) fn).call2(callStack, a, b);
+        }
+
+        return callList(callStack, fn, new PyObject[]{a, b});
+    }
+
+    protected static PyObject call(PyCallStack callStack, PyObject fn, PyObject a, PyObject b, PyObject c) {
+        if (fn instanceof PyCallable && !(fn instanceof PyMethod && ((PyMethod) fn).getFun() instanceof PyFunction)) {
+            return ((PyCallable) fn).call3(callStack, a, b, c);
+        }
+
+        return call(callStack, fn, new PyObject[]{a, b, c});
+    }
+
+    protected static PyObject call(PyCallStack callStack, PyObject fn, PyObject[] args) {
+        if (fn instanceof PyMethod && ((PyMethod) fn).getFun() instanceof PyFunction) {
+            return ((PyFunction) ((PyMethod) fn).getFun()).callFromStack(callStack, ((PyMethod) fn).getSelf(), args, 0, args.length);
+        }
+
+        if (fn instanceof PyFunction) {
+            return ((PyFunction) fn).callFromStack(callStack, null, args, 0, args.length);
+        }
+
+        return callList(callStack, fn, args);
+    }
+
+    // The arguments are given to __call__ in reverse order.
+    private static PyObject callList(PyCallStack callStack, PyObject fn, PyObject[] args) {
+        ArrayList<PyObject> list = new ArrayList<PyObject>(args.length);
+
+        for (int i = args.length - 1; i >= 0; i--) {
+            list.add(args[i]);
+        }
+
+        return fn.callSlot(callStack, PyType.SLOT_CALL, list);
+    }
+
+    // CALL_METHOD calls the method found by LOAD_METHOD with the object it
+    // was found on as its first argument, or when no method was found, the
+    // attribute that was loaded instead.
+    protected static PyObject callMethod(PyCallStack callStack, PyObject method, PyObject obj) {
+        return method == null ? call(callStack, obj) : call(callStack, method, obj);
+    }
+
+    protected static PyObject callMethod(PyCallStack callStack, PyObject method, PyObject obj, PyObject a) {
+        return method == null ? call(callStack, obj, a) : call(callStack, method, obj, a);
+    }
+
+    protected static PyObject callMethod(PyCallStack callStack, PyObject method, PyObject obj, PyObject a, PyObject b) {
+        return method == null ? call(callStack, obj, a, b) : call(callStack, method, obj, a, b);
+    }
+
+    protected static PyObject callMethod(PyCallStack callStack, PyObject method, PyObject obj, PyObject[] args) {
+        if (method == null) {
+            return call(callStack, obj, args);
+        }
+
+        PyObject[] withSelf = new PyObject[args.length + 1];
+        withSelf[0] = obj;
+        System.arraycopy(args, 0, withSelf, 1, args.length);
+
+        return call(callStack, method, withSelf);
+    }
+
+    private static String name(PyObject frame, int operand) {
+        return ((PyFrame) frame).getCode().getGlobals().get(operand);
+    }
+
+    protected static PyObject loadAttr(PyObject frame, int pc, int operand, PyObject u) {
+        return ((PyFrame) frame).getCode().getAttrCache(pc).load(u, name(frame, operand));
+    }
+
+    protected static void storeAttr(PyObject frame, int pc, int operand, PyObject obj, PyObject value) {
+        ((PyFrame) frame).getCode().getAttrCache(pc).store(obj, name(frame, operand), value);
+    }
+
+    // LOAD_METHOD pushes two values. This returns the first, which is the
+    // method or null, and methodSelf returns the second.
+    protected static PyObject loadMethod(PyObject frame, int pc, int operand, PyObject u) {
+        if (u instanceof PySuper) {
+            PyObject w = ((PySuper) u).getMethod(name(frame, operand));
+
+            if (w != null) {
+                return w;
+            }
+        }
+
+        return ((PyFrame) frame).getCode().getAttrCache(pc).loadMethod(u, name(frame, operand));
+    }
+
+    protected static PyObject methodSelf(PyObject frame, int pc, int operand, PyObject u, PyObject method) {
+        if (method == null) {
+            return ((PyFrame) frame).getCode().getAttrCache(pc).load(u, name(frame, operand));
+        }
+
+        if (u instanceof PySuper && ((PySuper) u).getMethod(name(frame, operand)) != null) {
+            return ((PySuper) u).getSelf();
+        }
+
+        return u;
+    }
+
+    protected static PyObject buildTuple(PyObject[] values) {
+        return new PyTuple(new ArrayList<PyObject>(Arrays.asList(values)));
+    }
+
+    protected static PyObject buildList(PyObject[] values) {
+        return new PyList(new ArrayList<PyObject>(Arrays.asList(values)));
+    }
+
+    protected static PyObject[] selectTuple(PyObject u, int count) {
+        if (u.getType().typeId() != PyTypeId.PyTupleType) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "Attempt to select elements of a tuple from a non-tuple object");
+        }
+
+        PyTuple tuple = (PyTuple) u;
+
+        if (count != tuple.size()) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "Attempt to select elements of a atile with incorrect size");
+        }
+
+        PyObject[] values = new PyObject[count];
+
+        for (int i = 0; i < count; i++) {
+            values[i] = tuple.getVal(i);
+        }
+
+        return values;
+    }
+
+    protected static PyObject loadClosure(PyObject frame, int operand) {
+        PyFrame f = (PyFrame) frame;
+        return f.getCellVar(f.getCellName(operand));
+    }
+
+    protected static PyObject loadDeref(PyObject frame, int operand) {
+        PyFrame f = (PyFrame) frame;
+        return f.getCellVar(f.getCellName(operand)).deref();
+    }
+
+    protected static void storeDeref(PyObject frame, int operand, PyObject u) {
+        PyFrame f = (PyFrame) frame;
+        f.getCellVar(f.getCellName(operand)).set(u);
+    }
+
+    protected static PyObject makeFunction(PyObject frame, PyObject code) {
+        return new PyFunction((PyCode) code, ((PyFrame) frame).getGlobals(), null);
+    }
+
+    protected static PyObject makeClosure(PyObject frame, PyObject code, PyObject env) {
+        return new PyFunction((PyCode) code, ((PyFrame) frame).getGlobals(), env);
+    }
+
+    // Returns the exception to throw for an exception raised by the
+    // instruction at pc.
+    protected static RuntimeException failed(PyObject frame, int pc, Exception e) {
+        PyFrame f = (PyFrame) frame;
+        PyCode code = f.getCode();
+        PyException ex;
+
+        f.setPC(pc + 1);
+        code.countCompiledException();
+
+        if (e instanceof PyException) {
+            ex = (PyException) e;
+        } else {
+            ex = new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    e.getMessage() + " while executing instruction "
+                    + PyByteCode.opCodeName(PyByteCode.genericOf(code.getInstructions().get(pc).getOpCode().code())));
+            if (JCoCo.verbose) {
+                System.err.println("*********************Exception***************************");
+                e.printStackTrace();
+            }
+        }
+
+        ex.tracebackAppend(f);
+
+        return ex;
+    }
+}
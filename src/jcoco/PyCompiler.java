@@ -0,0 +1,658 @@
+/**
+ * PyCompiler.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The PyCompiler translates the instructions of a hot PyCode into a JVM
+ * class (see PyCompiledCode), which the JVM then compiles to machine code
+ * like any other Java code. PyCode decides when a code is hot by counting
+ * its calls and the jumps back to the tops of its loops.
+ *
+ * Each value on the operand stack of the code becomes a local variable of the
+ * generated run method. Since the stack depth at each instruction is known
+ * when the code is loaded (see PyVerifier), the compiler knows which local
+ * each instruction takes its operands from and stores its result in, so the
+ * values never go through the opStack of a frame. The loop blocks are known
+ * in the same way, so BREAK_LOOP becomes a jump straight to the end of its
+ * loop and SETUP_LOOP and POP_BLOCK disappear.
+ *
+ * Only the instructions that ordinary functions are made of are compiled.
+ * Code with any other instruction is always interpreted. In particular, code
+ * that sets up an exception handler or raises an exception, a class body,
+ * and code with a BREAK_POINT are not compiled, nor is code whose stack
+ * depth or loop blocks at some instruction depend on the path taken to it.
+ *
+ * Each generated class is defined by a class loader of its own, so the class
+ * can be unloaded once its code is no longer used. The classes are written
+ * as version 49 class files (see PyClassWriter).
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import static jcoco.PyByteCode.*;
+import static jcoco.PyClassWriter.*;
+
+class PyCompiler {
+
+    private static final String BASE = "jcoco/PyCompiledCode";
+    private static final String OBJECT = "Ljcoco/PyObject;";
+    private static final String STACK = "Ljcoco/PyCallStack;";
+    private static final String RUN = "(" + STACK + "[" + OBJECT + OBJECT + "I[" + OBJECT + ")" + OBJECT;
+
+    // The locals of the run method. The values of the operand stack follow
+    // the fixed ones.
+    private static final int CALL_STACK = 1;
+    private static final int LOCALS = 2;
+    private static final int FRAME = 3;
+    private static final int ENTRY = 4;
+    private static final int ENTRY_STACK = 5;
+    private static final int PC = 6;
+    private static final int TEMP = 7;
+    private static final int SLOTS = 8;
+
+    private static int classCount = 0;
+
+    private final PyCode code;
+    private final int count;
+    private final int[] opcodes;
+    private final int[] operands;
+    // The depth of the operand stack at each instruction or -1 if the
+    // instruction cannot be reached, and the SETUP_LOOP instructions of the
+    // loops it is in.
+    private final int[] depths;
+    private final int[][] loops;
+    private final boolean[] entries;
+    private int maxDepth = 0;
+    private String reason = null;
+
+    private PyCompiler(PyCode code) {
+        ArrayList<PyByteCode> instructions = code.getInstructions();
+
+        this.code = code;
+        this.count = instructions.size();
+        this.opcodes = new int[this.count];
+        this.operands = new int[this.count];
+        this.depths = new int[this.count];
+        this.loops = new int[this.count][];
+        this.entries = new boolean[this.count];
+
+        for (int pc = 0; pc < this.count; pc++) {
+            //A superinstruction is compiled as the first instruction of its
+            //sequence, followed by the rest of it.
+            this.opcodes[pc] = genericOf(instructions.get(pc).getOpCode().code());
+            this.operands[pc] = instructions.get(pc).getOperand();
+            this.depths[pc] = -1;
+        }
+    }
+
+    // Returns the compiled form of code or null if it cannot be compiled.
+    static PyCompiledCode compile(PyCode code) {
+        PyCompiler compiler = new PyCompiler(code);
+        PyCompiledCode compiled = null;
+
+        try {
+            if (compiler.analyze()) {
+                String name = "jcoco/PyCompiled$" + code.getName().replaceAll("[^A-Za-z0-9_]", "_") + "$" + (classCount++);
+                byte[] bytes = compiler.generate(name);
+                Class<?> cls = new Loader().define(name.replace('/', '.'), bytes);
+                compiled = (PyCompiledCode) cls.getConstructor().newInstance();
+                compiled.consts = code.getConsts().toArray(new PyObject[0]);
+            }
+        } catch (ReflectiveOperationException | LinkageError | IllegalStateException ex) {
+            compiler.reason = ex.toString();
+        }
+
+        if (JCoCo.verbose) {
+            System.err.println(compiled != null ? "Compiled function " + code.getName()
+                    : "Function " + code.getName() + " is not compiled: " + compiler.reason);
+        }
+
+        return compiled;
+    }
+
+    private static final class Loader extends ClassLoader {
+
+        Loader() {
+            super(PyCompiler.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return this.defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    // Returns true if the instruction is one the compiler translates. The
+    // rest either need the frame's own stacks or are for debugging.
+    private static boolean supported(int opcode, int operand) {
+        switch (opcode) {
+            case NOP:
+            case POP_TOP:
+            case ROT_TWO:
+            case DUP_TOP:
+            case LOAD_FAST:
+            case STORE_FAST:
+            case DELETE_FAST:
+            case LOAD_CONST:
+            case LOAD_GLOBAL:
+            case BINARY_ADD:
+            case INPLACE_ADD:
+            case BINARY_SUBTRACT:
+            case BINARY_MULTIPLY:
+            case BINARY_FLOOR_DIVIDE:
+            case BINARY_TRUE_DIVIDE:
+            case BINARY_MODULO:
+            case BINARY_POWER:
+            case BINARY_SUBSCR:
+            case STORE_SUBSCR:
+            case GET_ITER:
+            case FOR_ITER:
+            case SETUP_LOOP:
+            case POP_BLOCK:
+            case BREAK_LOOP:
+            case JUMP_FORWARD:
+            case JUMP_ABSOLUTE:
+            case POP_JUMP_IF_TRUE:
+            case POP_JUMP_IF_FALSE:
+            case CALL_FUNCTION:
+            case CALL_METHOD:
+            case RETURN_VALUE:
+            case LOAD_ATTR:
+            case STORE_ATTR:
+            case LOAD_METHOD:
+            case BUILD_TUPLE:
+            case BUILD_LIST:
+            case SELECT_TUPLE:
+            case LOAD_CLOSURE:
+            case LOAD_DEREF:
+            case STORE_DEREF:
+            case MAKE_FUNCTION:
+            case MAKE_CLOSURE:
+                return true;
+            case COMPARE_OP:
+                //The exception match is only used in exception handlers.
+                return operand < 10;
+            default:
+                return false;
+        }
+    }
+
+    // Finds the stack depth and loop blocks at each instruction, which must
+    // be the same along every path to it.
+    private boolean analyze() {
+        int[] worklist = new int[this.count];
+        int pending = 0;
+
+        for (int pc = 0; pc < this.count; pc++) {
+            if (!supported(this.opcodes[pc], this.operands[pc])) {
+                this.reason = "it has a " + opCodeName(this.opcodes[pc]) + " instruction";
+                return false;
+            }
+        }
+
+        this.depths[0] = 0;
+        this.loops[0] = new int[0];
+        worklist[pending++] = 0;
+
+        while (pending > 0) {
+            int pc = worklist[--pending];
+            int opcode = this.opcodes[pc];
+            int operand = this.operands[pc];
+            int depth = this.depths[pc];
+            int[] blocks = this.loops[pc];
+            int[] targets;
+
+            this.maxDepth = Math.max(this.maxDepth, depth + Math.max(0, stackEffect(opcode, operand, false)));
+
+            switch (opcode) {
+                case SETUP_LOOP:
+                    int[] inner = Arrays.copyOf(blocks, blocks.length + 1);
+                    inner[blocks.length] = pc;
+                    targets = new int[]{pc + 1, depth};
+                    blocks = inner;
+                    break;
+                case POP_BLOCK:
+                case BREAK_LOOP:
+                    if (blocks.length == 0) {
+                        this.reason = "instruction " + pc + " pops a block that is not a loop";
+                        return false;
+                    }
+                    int setup = blocks[blocks.length - 1];
+                    blocks = Arrays.copyOf(blocks, blocks.length - 1);
+                    if (opcode == BREAK_LOOP) {
+                        targets = new int[]{this.operands[setup], Math.min(depth, this.depths[setup])};
+                    } else {
+                        targets = new int[]{pc + 1, depth};
+                    }
+                    break;
+                case FOR_ITER:
+                    targets = new int[]{pc + 1, depth + 1, operand, depth - 1};
+                    break;
+                case JUMP_FORWARD:
+                    targets = new int[]{operand, depth};
+                    break;
+                case JUMP_ABSOLUTE:
+                    targets = new int[]{operand, depth};
+                    if (operand <= pc) {
+                        this.entries[operand] = true;
+                    }
+                    break;
+                case POP_JUMP_IF_TRUE:
+                case POP_JUMP_IF_FALSE:
+                    targets = new int[]{pc + 1, depth - 1, operand, depth - 1};
+                    break;
+                case RETURN_VALUE:
+                    targets = new int[0];
+                    break;
+                default:
+                    targets = new int[]{pc + 1, depth + stackEffect(opcode, operand, false)};
+            }
+
+            for (int i = 0; i + 1 < targets.length; i += 2) {
+                int target = targets[i];
+
+                if (target < 0 || target >= this.count) {
+                    this.reason = "instruction " + pc + " continues past the end of the code";
+                    return false;
+                }
+
+                if (this.depths[target] < 0) {
+                    this.depths[target] = targets[i + 1];
+                    this.loops[target] = blocks;
+                    worklist[pending++] = target;
+                } else if (this.depths[target] != targets[i + 1] || !Arrays.equals(this.loops[target], blocks)) {
+                    this.reason = "instruction " + target + " is reached with different stacks";
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static int slot(int depth) {
+        return SLOTS + depth;
+    }
+
+    // Leaves a new array with the values of count slots, starting with the
+    // one at depth first, on the JVM stack.
+    private static void array(PyClassWriter w, int first, int count) {
+        w.iconst(count);
+        w.anewarray("jcoco/PyObject");
+
+        for (int i = 0; i < count; i++) {
+            w.insn(DUP);
+            w.iconst(i);
+            w.aload(slot(first + i));
+            w.insn(AASTORE);
+        }
+    }
+
+    private static void helper(PyClassWriter w, String name, String desc) {
+        w.invoke(INVOKESTATIC, BASE, name, desc);
+    }
+
+    // Returns true if the instruction cannot raise an exception, so it does
+    // not need to record where it is for failed.
+    private static boolean safe(int opcode) {
+        switch (opcode) {
+            case NOP:
+            case POP_TOP:
+            case ROT_TWO:
+            case DUP_TOP:
+            case STORE_FAST:
+            case DELETE_FAST:
+            case LOAD_CONST:
+            case SETUP_LOOP:
+            case POP_BLOCK:
+            case BREAK_LOOP:
+            case JUMP_FORWARD:
+            case JUMP_ABSOLUTE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private byte[] generate(String name) {
+        PyClassWriter w = new PyClassWriter(name, BASE);
+        int[] labels = new int[this.count];
+        int start;
+        int end;
+        int handler;
+
+        w.beginMethod(ACC_PUBLIC, "<init>", "()V", 1);
+        w.aload(0);
+        w.invoke(INVOKESPECIAL, BASE, "<init>", "()V");
+        w.insn(RETURN);
+        w.endMethod();
+
+        w.beginMethod(ACC_PUBLIC, "run", RUN, SLOTS + this.maxDepth);
+
+        for (int pc = 0; pc < this.count; pc++) {
+            labels[pc] = w.newLabel();
+        }
+
+        start = w.newLabel();
+        end = w.newLabel();
+        handler = w.newLabel();
+
+        w.iconst(0);
+        w.istore(PC);
+
+        //A loop that became hot in the interpreter is entered at its top with
+        //the values the frame has on its operand stack.
+        for (int pc = 0; pc < this.count; pc++) {
+            if (this.entries[pc] && this.depths[pc] >= 0) {
+                int next = w.newLabel();
+                w.iload(ENTRY);
+                w.iconst(pc);
+                w.jump(IF_ICMPNE, next);
+                for (int i = 0; i < this.depths[pc]; i++) {
+                    w.aload(ENTRY_STACK);
+                    w.iconst(i);
+                    w.insn(AALOAD);
+                    w.astore(slot(i));
+                }
+                w.jump(GOTO, labels[pc]);
+                w.mark(next);
+            }
+        }
+
+        w.mark(start);
+
+        for (int pc = 0; pc < this.count; pc++) {
+            int d = this.depths[pc];
+            int operand = this.operands[pc];
+
+            if (d < 0) {
+                continue;
+            }
+
+            w.mark(labels[pc]);
+
+            if (!safe(this.opcodes[pc])) {
+                w.iconst(pc);
+                w.istore(PC);
+            }
+
+            switch (this.opcodes[pc]) {
+                case NOP:
+                case POP_TOP:
+                case SETUP_LOOP:
+                case POP_BLOCK:
+                    break;
+                case ROT_TWO:
+                    w.aload(slot(d - 1));
+                    w.astore(TEMP);
+                    w.aload(slot(d - 2));
+                    w.astore(slot(d - 1));
+                    w.aload(TEMP);
+                    w.astore(slot(d - 2));
+                    break;
+                case DUP_TOP:
+                    w.aload(slot(d - 1));
+                    w.astore(slot(d));
+                    break;
+                case LOAD_FAST:
+                    w.aload(LOCALS);
+                    w.iconst(operand);
+                    w.insn(AALOAD);
+                    w.aload(FRAME);
+                    w.iconst(operand);
+                    helper(w, "local", "(" + OBJECT + OBJECT + "I)" + OBJECT);
+                    w.astore(slot(d));
+                    break;
+                case STORE_FAST:
+                    w.aload(LOCALS);
+                    w.iconst(operand);
+                    w.aload(slot(d - 1));
+                    w.insn(AASTORE);
+                    break;
+                case DELETE_FAST:
+                    w.aload(LOCALS);
+                    w.iconst(operand);
+                    w.insn(ACONST_NULL);
+                    w.insn(AASTORE);
+                    break;
+                case LOAD_CONST:
+                    w.aload(0);
+                    w.getfield(BASE, "consts", "[" + OBJECT);
+                    w.iconst(operand);
+                    w.insn(AALOAD);
+                    w.astore(slot(d));
+                    break;
+                case LOAD_GLOBAL:
+                    w.aload(FRAME);
+                    w.iconst(pc);
+                    w.iconst(operand);
+                    helper(w, "loadGlobal", "(" + OBJECT + "II)" + OBJECT);
+                    w.astore(slot(d));
+                    break;
+                case COMPARE_OP:
+                    w.aload(CALL_STACK);
+                    w.iconst(operand);
+                    w.aload(slot(d - 2));
+                    w.aload(slot(d - 1));
+                    helper(w, "compare", "(" + STACK + "I" + OBJECT + OBJECT + ")" + OBJECT);
+                    w.astore(slot(d - 2));
+                    break;
+                case BINARY_ADD:
+                case INPLACE_ADD:
+                case BINARY_SUBTRACT:
+                case BINARY_MULTIPLY:
+                case BINARY_FLOOR_DIVIDE:
+                case BINARY_TRUE_DIVIDE:
+                case BINARY_MODULO:
+                case BINARY_POWER:
+                case BINARY_SUBSCR:
+                    w.aload(CALL_STACK);
+                    w.aload(slot(d - 2));
+                    w.aload(slot(d - 1));
+                    helper(w, binaryHelper(this.opcodes[pc]), "(" + STACK + OBJECT + OBJECT + ")" + OBJECT);
+                    w.astore(slot(d - 2));
+                    break;
+                case STORE_SUBSCR:
+                    w.aload(CALL_STACK);
+                    w.aload(slot(d - 2));
+                    w.aload(slot(d - 1));
+                    w.aload(slot(d - 3));
+                    helper(w, "setItem", "(" + STACK + OBJECT + OBJECT + OBJECT + ")V");
+                    break;
+                case GET_ITER:
+                    w.aload(CALL_STACK);
+                    w.aload(slot(d - 1));
+                    helper(w, "iter", "(" + STACK + OBJECT + ")" + OBJECT);
+                    w.astore(slot(d - 1));
+                    break;
+                case FOR_ITER:
+                    w.aload(CALL_STACK);
+                    w.aload(slot(d - 1));
+                    helper(w, "next", "(" + STACK + OBJECT + ")" + OBJECT);
+                    w.astore(slot(d));
+                    w.aload(slot(d));
+                    w.jump(IFNULL, labels[operand]);
+                    break;
+                case BREAK_LOOP:
+                    w.jump(GOTO, labels[this.operands[this.loops[pc][this.loops[pc].length - 1]]]);
+                    break;
+                case JUMP_FORWARD:
+                case JUMP_ABSOLUTE:
+                    w.jump(GOTO, labels[operand]);
+                    break;
+                case POP_JUMP_IF_TRUE:
+                case POP_JUMP_IF_FALSE:
+                    w.aload(slot(d - 1));
+                    helper(w, this.opcodes[pc] == POP_JUMP_IF_TRUE ? "jumpIfTrue" : "jumpIfFalse", "(" + OBJECT + ")Z");
+                    w.jump(IFNE, labels[operand]);
+                    break;
+                case CALL_FUNCTION:
+                    w.aload(CALL_STACK);
+                    w.aload(slot(d - operand - 1));
+                    if (operand <= 3) {
+                        for (int i = d - operand; i < d; i++) {
+                            w.aload(slot(i));
+                        }
+                        helper(w, "call", "(" + STACK + OBJECT + repeat(OBJECT, operand) + ")" + OBJECT);
+                    } else {
+                        array(w, d - operand, operand);
+                        helper(w, "call", "(" + STACK + OBJECT + "[" + OBJECT + ")" + OBJECT);
+                    }
+                    w.astore(slot(d - operand - 1));
+                    break;
+                case CALL_METHOD:
+                    w.aload(CALL_STACK);
+                    w.aload(slot(d - operand - 2));
+                    w.aload(slot(d - operand - 1));
+                    if (operand <= 2) {
+                        for (int i = d - operand; i < d; i++) {
+                            w.aload(slot(i));
+                        }
+                        helper(w, "callMethod", "(" + STACK + OBJECT + OBJECT + repeat(OBJECT, operand) + ")" + OBJECT);
+                    } else {
+                        array(w, d - operand, operand);
+                        helper(w, "callMethod", "(" + STACK + OBJECT + OBJECT + "[" + OBJECT + ")" + OBJECT);
+                    }
+                    w.astore(slot(d - operand - 2));
+                    break;
+                case RETURN_VALUE:
+                    w.aload(CALL_STACK);
+                    w.invoke(INVOKEVIRTUAL, "jcoco/PyCallStack", "popFrame", "()V");
+                    w.aload(slot(d - 1));
+                    w.insn(ARETURN);
+                    break;
+                case LOAD_ATTR:
+                    w.aload(FRAME);
+                    w.iconst(pc);
+                    w.iconst(operand);
+                    w.aload(slot(d - 1));
+                    helper(w, "loadAttr", "(" + OBJECT + "II" + OBJECT + ")" + OBJECT);
+                    w.astore(slot(d - 1));
+                    break;
+                case STORE_ATTR:
+                    w.aload(FRAME);
+                    w.iconst(pc);
+                    w.iconst(operand);
+                    w.aload(slot(d - 1));
+                    w.aload(slot(d - 2));
+                    helper(w, "storeAttr", "(" + OBJECT + "II" + OBJECT + OBJECT + ")V");
+                    break;
+                case LOAD_METHOD:
+                    w.aload(FRAME);
+                    w.iconst(pc);
+                    w.iconst(operand);
+                    w.aload(slot(d - 1));
+                    helper(w, "loadMethod", "(" + OBJECT + "II" + OBJECT + ")" + OBJECT);
+                    w.astore(TEMP);
+                    w.aload(FRAME);
+                    w.iconst(pc);
+                    w.iconst(operand);
+                    w.aload(slot(d - 1));
+                    w.aload(TEMP);
+                    helper(w, "methodSelf", "(" + OBJECT + "II" + OBJECT + OBJECT + ")" + OBJECT);
+                    w.astore(slot(d));
+                    w.aload(TEMP);
+                    w.astore(slot(d - 1));
+                    break;
+                case BUILD_TUPLE:
+                case BUILD_LIST:
+                    array(w, d - operand, operand);
+                    helper(w, this.opcodes[pc] == BUILD_TUPLE ? "buildTuple" : "buildList", "([" + OBJECT + ")" + OBJECT);
+                    w.astore(slot(d - operand));
+                    break;
+                case SELECT_TUPLE:
+                    //The first element of the tuple ends up on top.
+                    w.aload(slot(d - 1));
+                    w.iconst(operand);
+                    helper(w, "selectTuple", "(" + OBJECT + "I)[" + OBJECT);
+                    for (int i = 0; i < operand; i++) {
+                        w.insn(DUP);
+                        w.iconst(operand - 1 - i);
+                        w.insn(AALOAD);
+                        w.astore(slot(d - 1 + i));
+                    }
+                    w.insn(POP);
+                    break;
+                case LOAD_CLOSURE:
+                case LOAD_DEREF:
+                    w.aload(FRAME);
+                    w.iconst(operand);
+                    helper(w, this.opcodes[pc] == LOAD_CLOSURE ? "loadClosure" : "loadDeref", "(" + OBJECT + "I)" + OBJECT);
+                    w.astore(slot(d));
+                    break;
+                case STORE_DEREF:
+                    w.aload(FRAME);
+                    w.iconst(operand);
+                    w.aload(slot(d - 1));
+                    helper(w, "storeDeref", "(" + OBJECT + "I" + OBJECT + ")V");
+                    break;
+                case MAKE_FUNCTION:
+                    w.aload(FRAME);
+                    w.aload(slot(d - 1));
+                    helper(w, "makeFunction", "(" + OBJECT + OBJECT + ")" + OBJECT);
+                    w.astore(slot(d - 1));
+                    break;
+                case MAKE_CLOSURE:
+                    w.aload(FRAME);
+                    w.aload(slot(d - 1));
+                    w.aload(slot(d - 2));
+                    helper(w, "makeClosure", "(" + OBJECT + OBJECT + OBJECT + ")" + OBJECT);
+                    w.astore(slot(d - 2));
+                    break;
+                default:
+                    throw new IllegalStateException("cannot compile " + opCodeName(this.opcodes[pc]));
+            }
+        }
+
+        w.mark(end);
+        w.mark(handler);
+        w.setStack(1);
+        w.astore(TEMP);
+        w.aload(FRAME);
+        w.iload(PC);
+        w.aload(TEMP);
+        helper(w, "failed", "(" + OBJECT + "ILjava/lang/Exception;)Ljava/lang/RuntimeException;");
+        w.insn(ATHROW);
+        w.handler(start, end, handler, "java/lang/Exception");
+        w.endMethod();
+
+        return w.toByteArray();
+    }
+
+    private static String binaryHelper(int opcode) {
+        switch (opcode) {
+            case BINARY_ADD:
+            case INPLACE_ADD:
+                return "add";
+            case BINARY_SUBTRACT:
+                return "subtract";
+            case BINARY_MULTIPLY:
+                return "multiply";
+            case BINARY_FLOOR_DIVIDE:
+                return "floorDivide";
+            case BINARY_TRUE_DIVIDE:
+                return "trueDivide";
+            case BINARY_MODULO:
+                return "modulo";
+            case BINARY_POWER:
+                return "power";
+            default:
+                return "getItem";
+        }
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder out = new StringBuilder();
+
+        for (int i = 0; i < count; i++) {
+            out.append(s);
+        }
+
+        return out.toString();
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * PyConstantPool.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The PyConstantPool holds one object for each distinct int, float, str, and
+ * tuple constant of a program. PyParser interns the constants of every
+ * function here as it reads them, so functions that use the same literal
+ * share one object instead of each creating their own. The constants that
+ * PyOptimizer computes by folding are interned here too.
+ *
+ * Two constants are the same if they have the same type and value. A float is
+ * compared by its bits, so 0.0 and -0.0 stay different constants. A tuple is
+ * the same as another if its elements are the same constants, and a tuple
+ * holding anything else (e.g. a code object) is not interned.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+public class PyConstantPool {
+
+    private final HashMap<String, PyObject> constants = new HashMap<String, PyObject>();
+
+    // Returns the key identifying the value of a constant, or null if the
+    // constant is not interned.
+    private static String keyOf(PyObject value) {
+        if (value instanceof PyInt) {
+            return "i" + ((PyInt) value).getVal();
+        }
+
+        if (value instanceof PyFloat) {
+            return "f" + Double.doubleToLongBits(((PyFloat) value).getVal());
+        }
+
+        if (value instanceof PyStr) {
+            String s = value.str();
+            return "s" + s.length() + ":" + s;
+        }
+
+        if (value instanceof PyTuple) {
+            PyTuple tuple = (PyTuple) value;
+            StringBuilder key = new StringBuilder("t" + tuple.size() + "(");
+
+            for (int i = 0; i < tuple.size(); i++) {
+                String element = keyOf(tuple.getVal(i));
+
+                if (element == null) {
+                    return null;
+                }
+
+                key.append(element);
+                key.append(",");
+            }
+
+            key.append(")");
+            return key.toString();
+        }
+
+        return null;
+    }
+
+    // Returns the constant with the same value as the one given, which is the
+    // given one if there was none yet.
+    public PyObject intern(PyObject value) {
+        String key = keyOf(value);
+
+        if (key == null) {
+            return value;
+        }
+
+        PyObject existing = this.constants.get(key);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        this.constants.put(key, value);
+        return value;
+    }
+
+    // Returns the index of value in the constants of a function, adding it at
+    // the end if it is not there. The value must already be interned.
+    public static int indexIn(ArrayList<PyObject> constants, PyObject value) {
+        for (int i = 0; i < constants.size(); i++) {
+            if (constants.get(i) == value) {
+                return i;
+            }
+        }
+
+        constants.add(value);
+        return constants.size() - 1;
+    }
+}
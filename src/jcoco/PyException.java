@@ -91,19 +91,26 @@ public class PyException extends RuntimeException implements PyObject {
     protected ExceptionType type;
     protected ArrayList<PyFrame> traceback = new ArrayList<PyFrame>();
     protected PyStr val;
-    protected HashMap<String, PyObject> dict = new HashMap<String, PyObject>();
 
     public PyException(ExceptionType type, String msg) {
         super();
         this.type = type;
         this.val = new PyStr(msg);
-        initMethods(funs());
     }
 
     public PyException(int typeCode, String msg) {
         this(ExceptionType.valueOf(typeCode), msg);
     }
 
+    // A PyException's traceback is the list of PyFrames it passed through, 
+    // so the Java stack trace is never used. Not filling it in makes the 
+    // exception much cheaper to create, which matters for exceptions like 
+    // StopIteration that a program may raise and catch very often.
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
     public String getMessage(PyCallStack callStack) {
         return this.val.str();
     }
@@ -146,13 +153,41 @@ public class PyException extends RuntimeException implements PyObject {
 
     @Override
     public PyObject callMethod(PyCallStack callStack, String name, ArrayList<PyObject> args) {
-        if (!this.dict.containsKey(name)) {
+        // The methods of exceptions are found in the exception type and are
+        // passed the exception as self (see PyObjectAdapter.callMethod).
+        PyCallable fun = this.getType().getInstanceFun(name);
+
+        if (fun == null) {
             throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "TypeError: '" + this.getType().str() + "' object has no attribute '" + name + "'");
         }
 
-        PyCallable mbr = (PyCallable) this.dict.get(name);
+        args.add(this);
+        PyObject result = fun.__call__(callStack, args);
+        args.remove(args.size() - 1);
 
-        return mbr.__call__(callStack, args);
+        return result;
+    }
+
+    @Override
+    public PyObject callMethod(PyCallStack callStack, String name) {
+        PyCallable fun = this.getType().getInstanceFun(name);
+
+        if (fun == null) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "TypeError: '" + this.getType().str() + "' object has no attribute '" + name + "'");
+        }
+
+        return fun.call1(callStack, this);
+    }
+
+    @Override
+    public PyObject callMethod(PyCallStack callStack, String name, PyObject arg) {
+        PyCallable fun = this.getType().getInstanceFun(name);
+
+        if (fun == null) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "TypeError: '" + this.getType().str() + "' object has no attribute '" + name + "'");
+        }
+
+        return fun.call2(callStack, this, arg);
     }
 
     public static HashMap<String, PyCallable> funs() {
@@ -166,7 +201,12 @@ public class PyException extends RuntimeException implements PyObject {
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyException self = (PyException) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyException self = (PyException) selfArg;
 
                 return new PyStr(self.str());
             }
@@ -189,7 +229,13 @@ public class PyException extends RuntimeException implements PyObject {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
-                PyException self = (PyException) args.get(args.size() - 1);
+
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyException self = (PyException) selfArg;
 
                 return self.callMethod(callStack,"__str__", newargs());
             }
@@ -203,7 +249,12 @@ public class PyException extends RuntimeException implements PyObject {
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyException self = (PyException) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyException self = (PyException) selfArg;
 
                 return (PyObject) self.getType();
             }
@@ -217,14 +268,17 @@ public class PyException extends RuntimeException implements PyObject {
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyException self = (PyException) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
 
-                PyObject arg = args.get(0);
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyException self = (PyException) selfArg;
 
                 //if the arg was the Exception Type, then its a match because every
                 //exception object should match the exception type
                 if (self.getType() == arg) {
-                    return new PyBool(true);
+                    return PyBool.TRUE;
                 }
 
                 //Otherwise, the object passed was an Exception Object. Match the 
@@ -236,16 +290,10 @@ public class PyException extends RuntimeException implements PyObject {
 
                 PyException other = (PyException) arg;
 
-                return new PyBool(self.getExceptionType() == other.getExceptionType());
+                return PyBool.valueOf(self.getExceptionType() == other.getExceptionType());
             }
         });
 
         return funs;
     }
-
-    public void initMethods(HashMap<String, PyCallable> funs) {
-        for (String key : funs.keySet()) {
-            this.dict.put(key, new PyMethod(key, this, funs.get(key)));
-        }
-    }
 }
@@ -23,7 +23,7 @@ import java.io.File;
  *
  * @author leekentd
  */
-public class PyFile extends PyPrimitiveTypeAdapter {
+public class PyFile extends PyPrimitiveTypeAdapter implements PyIterator {
 
     protected Scanner scanin = null;
     protected PrintWriter scanout = null;
@@ -32,7 +32,6 @@ public class PyFile extends PyPrimitiveTypeAdapter {
 
     public PyFile(String filename, String mode) {
         super("file",PyType.PyTypeId.PyFileType);
-        initMethods(funs());
         this.filename = filename;
 
         try {
@@ -49,14 +48,12 @@ public class PyFile extends PyPrimitiveTypeAdapter {
 
     public PyFile(Scanner in) {
         super("file",PyType.PyTypeId.PyFileType);
-        initMethods(funs());
         this.filename = "<stdin>";
         scanin = in;
     }
 
     public PyFile(PrintWriter out) {
         super("file",PyType.PyTypeId.PyFileType);
-        initMethods(funs());
         this.filename = "<stdout>";
         scanout = out;
     }
@@ -92,19 +89,37 @@ public class PyFile extends PyPrimitiveTypeAdapter {
 
     }
     
+    @Override
+    public PyObject nextOrNull() {
+        if (scanin == null) {
+            throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "io.UnsupportedOperation: not readable");
+        }
+
+        if (!scanin.hasNextLine()) {
+            return null;
+        }
+
+        return this.readline();
+    }
+    
     public static HashMap<String, PyCallable> funs() {
         HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
 
         funs.put("readline", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument got " + args.size());
                 }
 
-                PyFile self = (PyFile) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFile self = (PyFile) selfArg;
 
                 if (!self.open) {
                     throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
@@ -120,13 +135,17 @@ public class PyFile extends PyPrimitiveTypeAdapter {
         funs.put("write", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument got " + args.size());
                 }
 
-                PyFile self = (PyFile) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyFile self = (PyFile) selfArg;
 
                 if (!self.open) {
                     throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
@@ -138,12 +157,12 @@ public class PyFile extends PyPrimitiveTypeAdapter {
                             "io.UnsupportedOperation: not writable");
                 }
 
-                PyStr str = (PyStr) args.get(0);
+                PyStr str = (PyStr) arg1;
 
                 self.scanout.write(str.str());
                 self.scanout.flush();
 
-                return new PyInt(str.str().length());
+                return PyInt.valueOf(str.str().length());
             }
 
         });
@@ -151,13 +170,17 @@ public class PyFile extends PyPrimitiveTypeAdapter {
         funs.put("__iter__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyFile self = (PyFile) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFile self = (PyFile) selfArg;
 
                 return self;
             }
@@ -166,40 +189,44 @@ public class PyFile extends PyPrimitiveTypeAdapter {
         funs.put("__next__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyFile self = (PyFile) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
 
-                if (self.scanin == null) {
-                    throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                            "io.UnsupportedOperation: not readable");
-                }
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFile self = (PyFile) selfArg;
+                PyObject line = self.nextOrNull();
 
-                if (!self.scanin.hasNextLine()) {
+                if (line == null) {
                     throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION, "stop it");
                 }
 
-                return self.readline();
+                return line;
             }
         });
 
         funs.put("close", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyFile self = (PyFile) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFile self = (PyFile) selfArg;
 
                 if (!self.open) {
-                    return new PyNone();
+                    return PyNone.NONE;
                 }
 
                 self.open = false;
@@ -210,7 +237,7 @@ public class PyFile extends PyPrimitiveTypeAdapter {
                     self.scanout.close();
                 }
 
-                return new PyNone();
+                return PyNone.NONE;
             }
         });
 
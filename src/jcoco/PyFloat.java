@@ -28,7 +28,6 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
         super("float",PyTypeId.PyFloatType);
         self = this;
         this.val = fVal;
-        initMethods(funs());
 
     }
 
@@ -54,25 +53,34 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFloat self = (PyFloat) selfArg;
 
-                return new PyInt(new Double(self.val).hashCode());
+                return PyInt.valueOf(new Double(self.val).hashCode());
             }
         });
 
         funs.put("__add__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                PyInt x;
-                PyFloat y;
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt x;
+                PyFloat y;
+
+                PyFloat self = (PyFloat) selfArg;
 
                 switch (arg.getType().typeId()) {
                     case PyIntType:
@@ -97,16 +105,20 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
         funs.put("__sub__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                PyInt x;
-                PyFloat y;
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt x;
+                PyFloat y;
+
+                PyFloat self = (PyFloat) selfArg;
 
                 switch (arg.getType().typeId()) {
                     case PyIntType:
@@ -131,16 +143,20 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
         funs.put("__mul__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                PyInt x;
-                PyFloat y;
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt x;
+                PyFloat y;
+
+                PyFloat self = (PyFloat) selfArg;
 
                 switch (arg.getType().typeId()) {
                     case PyIntType:
@@ -165,16 +181,20 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
         funs.put("__pow__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                PyInt x;
-                PyFloat y;
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt x;
+                PyFloat y;
+
+                PyFloat self = (PyFloat) selfArg;
 
                 switch (arg.getType().typeId()) {
                     case PyIntType:
@@ -195,18 +215,22 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
         funs.put("__mod__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                PyInt x;
-                PyFloat y;
-                double d;
-                int i;
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt x;
+                PyFloat y;
+                double d;
+                int i;
+
+                PyFloat self = (PyFloat) selfArg;
 
                 switch (arg.getType().typeId()) {
                     case PyIntType:
@@ -247,47 +271,59 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
         funs.put("__int__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 arguments got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
 
-                return new PyInt((int) self.val);
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFloat self = (PyFloat) selfArg;
+
+                return PyInt.valueOf((int) self.val);
             }
         });
 
         funs.put("__bool__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 arguments got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFloat self = (PyFloat) selfArg;
 
                 if (self.val == 0.0) {
-                    return new PyBool(false);
+                    return PyBool.FALSE;
                 }
 
-                return new PyBool(true);
+                return PyBool.TRUE;
             }
         });
 
         funs.put("__float__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 arguments got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFloat self = (PyFloat) selfArg;
 
                 return self;
             }
@@ -301,8 +337,12 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyFloat self = (PyFloat) selfArg;
                 PyInt x;
                 double d;
                 PyFloat y;
@@ -310,18 +350,18 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
-                        return new PyBool(self.val == x.getVal());
+                        return PyBool.valueOf(self.val == x.getVal());
 
                     case PyFloatType:
                         y = (PyFloat) arg;
-                        return new PyBool(self.val == y.getVal());
+                        return PyBool.valueOf(self.val == y.getVal());
 
                     case PyBoolType:
                         PyBool z = (PyBool) arg;
-                        return new PyBool(self.val == z.getIntVal());
+                        return PyBool.valueOf(self.val == z.getIntVal());
 
                     default:
-                        return new PyBool(false);
+                        return PyBool.FALSE;
                 }
             }
         });
@@ -334,8 +374,12 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyFloat self = (PyFloat) selfArg;
                 PyInt x;
                 double d;
                 PyFloat y;
@@ -343,18 +387,18 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
-                        return new PyBool(self.val != x.getVal());
+                        return PyBool.valueOf(self.val != x.getVal());
 
                     case PyFloatType:
                         y = (PyFloat) arg;
-                        return new PyBool(self.val != y.getVal());
+                        return PyBool.valueOf(self.val != y.getVal());
 
                     case PyBoolType:
                         PyBool z = (PyBool) arg;
-                        return new PyBool(self.val != z.getIntVal());
+                        return PyBool.valueOf(self.val != z.getIntVal());
 
                     default:
-                        return new PyBool(true);
+                        return PyBool.TRUE;
                 }
             }
         });
@@ -367,8 +411,12 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyFloat self = (PyFloat) selfArg;
                 PyInt x;
                 double d;
                 PyFloat y;
@@ -376,15 +424,15 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
-                        return new PyBool(self.val < x.getVal());
+                        return PyBool.valueOf(self.val < x.getVal());
 
                     case PyFloatType:
                         y = (PyFloat) arg;
-                        return new PyBool(self.val < y.getVal());
+                        return PyBool.valueOf(self.val < y.getVal());
 
                     case PyBoolType:
                         PyBool z = (PyBool) arg;
-                        return new PyBool(self.val < z.getIntVal());
+                        return PyBool.valueOf(self.val < z.getIntVal());
 
                     default:
                         throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
@@ -401,8 +449,12 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyFloat self = (PyFloat) selfArg;
                 PyInt x;
                 double d;
                 PyFloat y;
@@ -410,15 +462,15 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
-                        return new PyBool(self.val <= x.getVal());
+                        return PyBool.valueOf(self.val <= x.getVal());
 
                     case PyFloatType:
                         y = (PyFloat) arg;
-                        return new PyBool(self.val <= y.getVal());
+                        return PyBool.valueOf(self.val <= y.getVal());
 
                     case PyBoolType:
                         PyBool z = (PyBool) arg;
-                        return new PyBool(self.val <= z.getIntVal());
+                        return PyBool.valueOf(self.val <= z.getIntVal());
 
                     default:
                         throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
@@ -435,8 +487,12 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyFloat self = (PyFloat) selfArg;
                 PyInt x;
                 double d;
                 PyFloat y;
@@ -444,15 +500,15 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
-                        return new PyBool(self.val > x.getVal());
+                        return PyBool.valueOf(self.val > x.getVal());
 
                     case PyFloatType:
                         y = (PyFloat) arg;
-                        return new PyBool(self.val > y.getVal());
+                        return PyBool.valueOf(self.val > y.getVal());
 
                     case PyBoolType:
                         PyBool z = (PyBool) arg;
-                        return new PyBool(self.val > z.getIntVal());
+                        return PyBool.valueOf(self.val > z.getIntVal());
 
                     default:
                         throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
@@ -469,8 +525,12 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyFloat self = (PyFloat) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyFloat self = (PyFloat) selfArg;
                 PyInt x;
                 double d;
                 PyFloat y;
@@ -478,15 +538,15 @@ public class PyFloat extends PyPrimitiveTypeAdapter {
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
-                        return new PyBool(self.val >= x.getVal());
+                        return PyBool.valueOf(self.val >= x.getVal());
 
                     case PyFloatType:
                         y = (PyFloat) arg;
-                        return new PyBool(self.val >= y.getVal());
+                        return PyBool.valueOf(self.val >= y.getVal());
 
                     case PyBoolType:
                         PyBool z = (PyBool) arg;
-                        return new PyBool(self.val >= z.getIntVal());
+                        return PyBool.valueOf(self.val >= z.getIntVal());
 
                     default:
                         throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
@@ -15,10 +15,19 @@
  * and the globals, constants, and cellvars. The execute method of this class
  * is where the virtual machine instructions are executed.
  *
+ * Local variables are kept in the localSlots array and are indexed by the 
+ * operand of the LOAD_FAST, STORE_FAST, and DELETE_FAST instructions. The
+ * name-keyed locals map is only used by class bodies (see STORE_LOCALS, 
+ * STORE_NAME, and LOAD_NAME) and is otherwise created as needed.
+ *
  * The opStack instance variable is a stack of PyObjects. It is where the
  * virtual machine pushes operands that are used by the instructions. The
  * CoCo is a stack machine (i.e. no registers). All operands are pushed on the
- * opStack prior to an operation being performed.
+ * opStack prior to an operation being performed. The opStack is an array that
+ * is allocated with the maximum depth computed for the code (see PyCode) and 
+ * sp is the index of the next free element in it. PyVerifier has checked the
+ * code when it was loaded, so the instructions take values off the opStack
+ * without checking that it is not empty.
  *
  * The blockStack is a stack used to record blocks. A block is an integer
  * which is pushed on a stack for a loop or a try except block. When in a loop
@@ -26,65 +35,114 @@
  * the exit point for the program counter. For try except blocks the value
  * pushed on the blockStack is -1*PC where PC is the exit point of the exception
  * handler. In this way we can distinguish between loop blocks and exception
- * blocks.
+ * blocks. Like the opStack, the blockStack is an array, with bsp its top. 
+ * Each block takes two elements of it: the block itself and the height of the
+ * opStack when the block was pushed. Breaking out of a loop or handling an
+ * exception cuts the opStack back to that height, throwing away whatever the 
+ * loop or try block left on it.
+ *
+ * A frame executes the instructions of the code stream of its PyCode, which
+ * has no debugger checks in it. While the debugger is stepping, the frames
+ * on the call stack run the debug stream of their code instead, in which every
+ * instruction is DEBUG_STEP. It enters the debugger and then executes the 
+ * instruction from the code stream. setStepping switches the frames between 
+ * the two streams. They only read the stream when they fetch the next 
+ * instruction, so the switch always happens between two instructions.
  */
 package jcoco;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
-import jcoco.PyByteCode.PyOpCode;
+import java.util.LinkedHashMap;
 import jcoco.PyException.ExceptionType;
 import jcoco.PyType.PyTypeId;
 import java.util.Stack;
+import static jcoco.PyByteCode.*;
 
 class PyFrame extends PyObjectAdapter {
 
     private final PyCode code;
     private int PC;
+    private final PyObject[] localSlots;
     private HashMap<String, PyObject> locals;
     private HashMap<String, PyObject> globals;
     private HashMap<String, PyCell> cellvars;
     private boolean stepOnReturn = false;
     private boolean printDebuggerPrompt = true;
     private final ArrayList<PyObject> consts;
-    private PyStack<PyObject> opStack;
-    private PyStack<Integer> blockStack;
-    private final String[] cmp_op = {"__lt__", "__le__", "__eq__", "__ne__", "__gt__", "__ge__",
+    private int[] stream;
+    private PyObject[] opStack;
+    private int sp;
+    private int[] blockStack;
+    private int bsp;
+    static final String[] cmp_op = {"__lt__", "__le__", "__eq__", "__ne__", "__gt__", "__ge__",
         "__contains__", "__notin__", "is__", "is_not", "__excmatch",
         "BAD"};
     private PyCallStack callStack;
 
     public PyFrame(PyCallStack callStack, PyCode code, ArrayList<PyObject> args, HashMap<String, PyObject> globals,
             ArrayList<PyObject> consts, HashMap<String, PyCell> cellvars) {
+        this(callStack, code, argSlots(code, args), args.size(), globals, consts, cellvars);
+    }
+
+    // The local slots are given to this constructor with the first argCount
+    // of them already holding the arguments of the call. PyFunction uses it 
+    // to call a function without building an argument list.
+    PyFrame(PyCallStack callStack, PyCode code, PyObject[] localSlots, int argCount, HashMap<String, PyObject> globals,
+            ArrayList<PyObject> consts, HashMap<String, PyCell> cellvars) {
         super();
         this.callStack = callStack;
         this.globals = globals;
         this.code = code;
         this.consts = consts;
         this.cellvars = cellvars;
-        this.locals = new HashMap<String, PyObject>();
         ArrayList<String> varnames = code.getLocals();
+        this.localSlots = localSlots;
 
-        this.opStack = new PyStack<PyObject>();
-        this.blockStack = new PyStack<Integer>();
+        for (int i = 0; i < code.getCellVars().size(); i++) {
+            String name = code.getCellVars().get(i);
+            cellvars.put(name, new PyCell(null));
 
+            //Here we have a special case where the parmeter is used in a nested
+            //funciton ans so must be a cell instead of the normal local Value
+            int index = varnames.indexOf(name);
+            if (index >= 0 && index < argCount) {
+                cellvars.get(name).set(localSlots[index]);
+            }
+        }
+    }
+
+    // Allocates the local slots of a frame for code and stores the arguments
+    // in them. The arguments are given in reverse order as they are to 
+    // __call__.
+    private static PyObject[] argSlots(PyCode code, ArrayList<PyObject> args) {
+        PyObject[] slots = new PyObject[code.getLocals().size()];
         int j = args.size() - 1;
 
         for (int i = 0; i < args.size(); i++) {
-            locals.put(varnames.get(i), args.get(j));
+            slots[i] = args.get(j);
             j--;
         }
 
-        for (int i = 0; i < code.getCellVars().size(); i++) {
-            String name = code.getCellVars().get(i);
-            cellvars.put(name, new PyCell(null));
+        return slots;
+    }
 
-            //Here we have a special case where the parmeter is used in a nested
-            //funciton ans so must be a cell instead of the normal local Value
-            if (locals.containsKey(name)) {
-                cellvars.get(name).set(locals.get(name));
-            }
+    // Returns the cell of a cell or free variable of the code or null if it 
+    // has none called name.
+    PyCell getCellVar(String name) {
+        return this.cellvars.get(name);
+    }
+
+    // Turns stepping in the debugger on or off. Every frame on the call stack
+    // continues with the debug stream or the code stream of its code from its
+    // next instruction on.
+    static void setStepping(PyCallStack callStack, boolean stepping) {
+        JCoCo.stepOverInstructions = stepping;
+
+        for (PyFrame frame : callStack.getCallStack()) {
+            frame.stream = stepping ? frame.code.getDebugStream() : frame.code.getCodeStream();
         }
     }
 
@@ -93,21 +151,325 @@ class PyFrame extends PyObjectAdapter {
                 "Terminating with exception in function " + name);
     }
 
+    private void push(PyObject obj) {
+        if (sp == opStack.length) {
+            opStack = Arrays.copyOf(opStack, 2 * opStack.length + 1);
+        }
+        opStack[sp++] = obj;
+    }
+
+    // The code was verified when it was loaded (see PyVerifier), so no
+    // instruction takes more values off the operand stack than are on it.
+    private PyObject pop() {
+        return opStack[--sp];
+    }
+
+    private PyObject top() {
+        return opStack[sp - 1];
+    }
+
+    private boolean opStackIsEmpty() {
+        return sp == 0;
+    }
+
+    private void pushBlock(int block) {
+        if (bsp == blockStack.length) {
+            blockStack = Arrays.copyOf(blockStack, 2 * blockStack.length + 2);
+        }
+        blockStack[bsp++] = block;
+        blockStack[bsp++] = sp;
+    }
+
+    private int popBlock() {
+        if (bsp == 0) {
+            throw new PyException(ExceptionType.PYEMPTYSTACKEXCEPTION, "Attempt to pop empty stack.");
+        }
+        bsp -= 2;
+        return blockStack[bsp];
+    }
+
+    private boolean blockStackIsEmpty() {
+        return bsp == 0;
+    }
+
+    // The opStack height recorded with the block most recently popped.
+    private int poppedBlockHeight() {
+        return Math.min(sp, blockStack[bsp + 1]);
+    }
+
+    // This is used by the debugger to print the operand stack, top first.
+    private String opStackToString() {
+        // temporarily turn off stepping if it is on.
+        boolean debugging = JCoCo.stepOverInstructions;
+        JCoCo.stepOverInstructions = false;
+
+        StringBuffer out = new StringBuffer();
+
+        out.append("top\n---\n");
+
+        for (int i = sp - 1; i >= 0; i--) {
+            PyObject obj = opStack[i];
+            try {
+                out.append(obj + "\n");
+            } catch (PyException ex) {
+                try {
+                    out.append(obj.str() + "\n");
+                } catch (PyException ex2) {
+                    out.append("<" + obj.getType() + " object at 0x" + Integer.toHexString(System.identityHashCode(this)) + ">\n");
+                }
+            }
+        }
+
+        out.append("---\n");
+
+        // restore step over debugging if active.
+        JCoCo.stepOverInstructions = debugging;
+
+        return out.toString();
+    }
+
     public PyObject safetyPop() {
-        if (this.opStack.isEmpty()) {
+        if (this.opStackIsEmpty()) {
             throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                     "Attempt to pop empty operand stack in " + this.code.getInstructions().get(this.PC - 1).getOpCodeName());
         }
 
-        PyObject obj = opStack.pop();
+        return this.pop();
+    }
+
+    // Calls fn with the count arguments found on the operand stack starting at
+    // index start. CALL_FUNCTION and CALL_METHOD have already taken fn and
+    // the arguments off the stack by lowering sp, so the arguments are used 
+    // where they are instead of being popped into an argument list.
+    private PyObject callFromStack(PyObject fn, int start, int count) {
+        if (fn instanceof PyMethod && ((PyMethod) fn).getFun() instanceof PyFunction) {
+            //A method bound to a function gets self as the first local of 
+            //the new frame, followed by the arguments copied from the stack.
+            return ((PyFunction) ((PyMethod) fn).getFun()).callFromStack(callStack, ((PyMethod) fn).getSelf(), opStack, start, count);
+        }
+
+        if (fn instanceof PyFunction) {
+            return ((PyFunction) fn).callFromStack(callStack, null, opStack, start, count);
+        }
+
+        if (count <= 3 && fn instanceof PyCallable) {
+            //Calls of up to three arguments are made through call0 to call3 
+            //so no argument list is built. The arguments are in order on the
+            //stack.
+            PyCallable callable = (PyCallable) fn;
+            switch (count) {
+                case 0:
+                    return callable.call0(callStack);
+                case 1:
+                    return callable.call1(callStack, opStack[start]);
+                case 2:
+                    return callable.call2(callStack, opStack[start], opStack[start + 1]);
+                default:
+                    return callable.call3(callStack, opStack[start], opStack[start + 1], opStack[start + 2]);
+            }
+        }
+
+        //NOTE: Arguments are added backwards because that is the order they
+        //were popped off the stack in. So, the called function gets the 
+        //arguments backwards.
+        ArrayList<PyObject> args = new ArrayList<PyObject>();
+
+        for (int i = start + count - 1; i >= start; i--) {
+            args.add(opStack[i]);
+        }
+
+        return fn.callSlot(callStack, PyType.SLOT_CALL, args);
+    }
+
+    // Returns the slot number of the method of a COMPARE_OP operand, or -1 if
+    // the method is not one of those in slots and is called by name.
+    static int cmpSlot(int operand) {
+        switch (operand) {
+            case 0:
+                return PyType.SLOT_LT;
+            case 2:
+                return PyType.SLOT_EQ;
+            default:
+                return -1;
+        }
+    }
+
+    // The arithmetic and comparison instructions compute their result directly
+    // when both operands are ints or floats. The results are exactly those of
+    // the corresponding methods of PyInt and PyFloat. Any other operands are 
+    // handled by calling the method on the first operand.
+    static boolean isNumber(PyObject x) {
+        return x instanceof PyInt || x instanceof PyFloat;
+    }
+
+    static double doubleVal(PyObject x) {
+        if (x instanceof PyInt) {
+            return ((PyInt) x).getVal();
+        }
+        return ((PyFloat) x).getVal();
+    }
+
+    // The op is the COMPARE_OP operand and must be less than 6.
+    static boolean compareNumbers(int op, PyObject u, PyObject v) {
+        if (u instanceof PyInt && v instanceof PyInt) {
+            int a = ((PyInt) u).getVal();
+            int b = ((PyInt) v).getVal();
+            switch (op) {
+                case 0:
+                    return a < b;
+                case 1:
+                    return a <= b;
+                case 2:
+                    return a == b;
+                case 3:
+                    return a != b;
+                case 4:
+                    return a > b;
+                default:
+                    return a >= b;
+            }
+        }
+
+        double a = doubleVal(u);
+        double b = doubleVal(v);
+        switch (op) {
+            case 0:
+                return a < b;
+            case 1:
+                return a <= b;
+            case 2:
+                return a == b;
+            case 3:
+                return a != b;
+            case 4:
+                return a > b;
+            default:
+                return a >= b;
+        }
+    }
+
+    // These compute the results of the comparison, conditional jump, and 
+    // arithmetic instructions. Both the interpreter and compiled code (see 
+    // PyCompiledCode) call them, so the two always agree on the results and
+    // the errors they raise.
+    static PyObject compare(PyCallStack callStack, int op, PyObject u, PyObject v) {
+        if (op >= 6 && op < 10) {
+            //for these comparisons the method should be called on the
+            //second argument (TOS), not the first (TOS1)
+            PyObject tmp = u;
+            u = v;
+            v = tmp;
+        }
+
+        if (op < 6 && isNumber(u) && isNumber(v)) {
+            return PyBool.valueOf(compareNumbers(op, u, v));
+        }
+
+        //Please note that the line below depends on the cmp_op
+        //arrat and it should be intialized to all comparison
+        //operators. This list will need to expand at some point.
+        //the cmp_op array is at the top of this module.
+        return cmpSlot(op) >= 0 ? u.callSlot(callStack, cmpSlot(op), v) : u.callMethod(callStack, cmp_op[op], v);
+    }
+
+    static boolean jumpIfTrue(PyObject u) {
+        if (!(u instanceof PyBool)) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "Illegal operand type for POP_JUMP_IF_FALSE: expected bool, got " + u.getType().str());
+        }
+
+        return u == PyBool.TRUE;
+    }
+
+    static boolean jumpIfFalse(PyObject u) {
+        if (!(u instanceof PyBool)) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "Illegal Operand Type for POP_JUMP_IF_FALSE");
+        }
+
+        return u == PyBool.FALSE;
+    }
+
+    static PyObject add(PyCallStack callStack, PyObject u, PyObject v) {
+        if (u instanceof PyInt && v instanceof PyInt) {
+            // Math.addExact throws an ArithmeticException on 
+            // overflow just as int's __add__ does.
+            return PyInt.valueOf(Math.addExact(((PyInt) u).getVal(), ((PyInt) v).getVal()));
+        }
+
+        if (isNumber(u) && isNumber(v)) {
+            return new PyFloat(doubleVal(u) + doubleVal(v));
+        }
+
+        return u.callSlot(callStack, PyType.SLOT_ADD, v);
+    }
+
+    static PyObject subtract(PyCallStack callStack, PyObject u, PyObject v) {
+        if (u instanceof PyInt && v instanceof PyInt) {
+            return PyInt.valueOf(Math.subtractExact(((PyInt) u).getVal(), ((PyInt) v).getVal()));
+        }
+
+        if (isNumber(u) && isNumber(v)) {
+            return new PyFloat(doubleVal(u) - doubleVal(v));
+        }
+
+        return u.callSlot(callStack, PyType.SLOT_SUB, v);
+    }
+
+    static PyObject multiply(PyCallStack callStack, PyObject u, PyObject v) {
+        if (u instanceof PyInt && v instanceof PyInt) {
+            return PyInt.valueOf(Math.multiplyExact(((PyInt) u).getVal(), ((PyInt) v).getVal()));
+        }
+
+        if (isNumber(u) && isNumber(v)) {
+            return new PyFloat(doubleVal(u) * doubleVal(v));
+        }
+
+        return u.callMethod(callStack, "__mul__", v);
+    }
+
+    static PyObject floorDivide(PyCallStack callStack, PyObject u, PyObject v) {
+        if (u instanceof PyInt && v instanceof PyInt) {
+            if (((PyInt) v).getVal() == 0) {
+                throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                        "ZeroDivisionError: division by zero");
+            }
+
+            return PyInt.valueOf(((PyInt) u).getVal() / ((PyInt) v).getVal());
+        }
+
+        return u.callMethod(callStack, "__floordiv__", v);
+    }
+
+    static PyObject trueDivide(PyCallStack callStack, PyObject u, PyObject v) {
+        return u.callMethod(callStack, "__truediv__", v);
+    }
+
+    static PyObject modulo(PyCallStack callStack, PyObject u, PyObject v) {
+        if (u instanceof PyInt && v instanceof PyInt) {
+            if (((PyInt) v).getVal() == 0) {
+                throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                        "ZeroDivisionError: division or modulo by zero");
+            }
 
-        // If we were to come across a PyMarker it was left on the stack by
-        // code that had an exception. This should not happen, but if so, throw it away.
-        while (obj.getType().typeId() == PyType.PyTypeId.PyMarkerType) {
-            obj = opStack.pop();
+            return PyInt.valueOf(((PyInt) u).getVal() % ((PyInt) v).getVal());
         }
 
-        return obj;
+        if (u instanceof PyFloat && v instanceof PyFloat) {
+            if (((PyFloat) v).getVal() == 0) {
+                throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                        "ZeroDivisionError: division or modulo by zero");
+            }
+
+            int i = (int) (((PyFloat) u).getVal() / ((PyFloat) v).getVal());
+            return new PyFloat(((PyFloat) u).getVal() - i * ((PyFloat) v).getVal());
+        }
+
+        return u.callMethod(callStack, "__mod__", v);
+    }
+
+    static PyObject power(PyCallStack callStack, PyObject u, PyObject v) {
+        return u.callMethod(callStack, "__pow__", v);
     }
 
     public String getCellName(int index) {
@@ -129,14 +491,41 @@ class PyFrame extends PyObjectAdapter {
         return this.code;
     }
 
+    public PyObject getLocal(int index) {
+        return localSlots[index];
+    }
+
+    // Returns the locals of this frame keyed by name. For a class body this
+    // is the class' map. Otherwise the map is built from the local slots.
     public HashMap<String, PyObject> getLocals() {
-        return locals;
+        if (locals != null) {
+            return locals;
+        }
+
+        HashMap<String, PyObject> map = new LinkedHashMap<String, PyObject>();
+        ArrayList<String> varnames = code.getLocals();
+
+        for (int i = 0; i < localSlots.length; i++) {
+            if (localSlots[i] != null) {
+                map.put(varnames.get(i), localSlots[i]);
+            }
+        }
+
+        return map;
     }
 
     public int getPC() {
         return this.PC;
     }
 
+    void setPC(int pc) {
+        this.PC = pc;
+    }
+
+    HashMap<String, PyObject> getGlobals() {
+        return this.globals;
+    }
+
   public String hashMapToString(HashMap theMap) {
         // temporarily turn off stepping if it is on.
         boolean debugging = JCoCo.stepOverInstructions;
@@ -150,7 +539,7 @@ class PyFrame extends PyObjectAdapter {
 
         for (String key : map.keySet()) {
             try {
-                t = (PyStr) map.get(key).callMethod(new PyCallStack(), "__repr__", new ArrayList<PyObject>());
+                t = (PyStr) map.get(key).callMethod(new PyCallStack(), "__repr__");
                 t_str = t.str();
             } catch (PyException ex) {
                 try {
@@ -190,32 +579,28 @@ class PyFrame extends PyObjectAdapter {
                 System.out.println("  (h)elp:      print this help message\n  (c)allstack: print the current run-time stack\n  (t)ype:      print the code\n  (a)rgs:      print the contents of the operand stack\n  (l)ocals:    print the contents of the locals\n  (v)ars:      print the contents of the cellvars\n  (s)tep:      execute one instruction\n  (o)ut:       Step out of the current function call\n  (r)un:       continue execution\n  (q)uit:      quit execution");
             } else if (cmd.equals("run") || cmd.equals("r")) {
                 exited = true;
-                JCoCo.stepOverInstructions = false;
+                setStepping(callStack, false);
             } else if (cmd.equals("quit") || cmd.equals("q")) {
                 System.exit(0);
             } else if (cmd.equals("step") || cmd.equals("s")) {
                 printDebuggerPrompt = false; // Don't keep printing it if we are stepping.
                 exited = true;
-                JCoCo.stepOverInstructions = true;
+                setStepping(callStack, true);
                 System.out.println(PC + ": " + code.getInstructions().get(PC));
             } else if (cmd.equals("out") || cmd.equals("o")) {
                 stepOnReturn = true;
-                JCoCo.stepOverInstructions = false;
+                setStepping(callStack, false);
                 exited = true;
             } else if (cmd.equals("callstack") || cmd.equals("c")) {
                 callStack.printCallStack();
             } else if (cmd.equals("args") || cmd.equals("a")) {
-                if (JCoCo.verbose) {
-                    System.out.println(opStack.toStringNoMarkers());
-                } else {
-                    System.out.println(opStack.toString());
-                }
+                System.out.println(opStackToString());
 
             } else if (cmd.equals("type") || cmd.equals("t")) {
                 System.out.println("\n***********************************\nPC=" + PC + "\n***********************************");
                 System.out.println(this.code.prettyString("", true));
             } else if (cmd.equals("locals") || cmd.equals("l")) {
-                System.out.println(hashMapToString(locals));
+                System.out.println(hashMapToString(getLocals()));
             } else if (cmd.equals("vars") || cmd.equals("v")) {
                 System.out.println(hashMapToString(cellvars));
             } else {
@@ -225,11 +610,32 @@ class PyFrame extends PyObjectAdapter {
     }
 
     public PyObject execute() {
+        //Once the code is hot it is run by its compiled form instead.
+        final PyCompiledCode compiled = this.code.countCall();
+
+        if (compiled != null) {
+            callStack.pushFrame(this);
+            return compiled.run(callStack, this.localSlots, this, 0, null);
+        }
+
+        return this.interpret();
+    }
+
+    private PyObject interpret() {
 
         this.PC = 0;
-        PyByteCode inst = null;
-        PyOpCode opcode;
-        int operand;
+        this.opStack = new PyObject[code.getMaxStackDepth()];
+        this.sp = 0;
+        this.blockStack = new int[2 * code.getMaxBlockDepth()];
+        this.bsp = 0;
+        final int[] codeStream = this.code.getCodeStream();
+        final int instructionCount = codeStream.length / 2;
+        final PyObject[] globalCacheValues = this.code.getGlobalCacheValues();
+        final long[] globalCacheVersions = this.code.getGlobalCacheVersions();
+        final PyNamespace namespace = this.globals instanceof PyNamespace ? (PyNamespace) this.globals : null;
+        int opcode = NOP;
+        int operand = 0;
+        boolean redispatch = false;
         int i;
         PyType selfType;
         PyCell cell;
@@ -241,100 +647,163 @@ class PyFrame extends PyObjectAdapter {
         PyObject x;
         PyObject y;
         PyObject z;
-        PyBool bu;
         boolean handled = false;
         PyCallable fun;
         ArrayList<PyObject> args;
         Iterator it;
         String name;
 
+        this.stream = JCoCo.stepOverInstructions ? this.code.getDebugStream() : codeStream;
         callStack.pushFrame(this);
 
+        interpret:
         while (true) {
             try {
-                if (PC == this.code.getInstructions().size()) {
-                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                            "ValueError: Function must return a value. Missing RETURN_VALUE instruction");
-                }
-
-                inst = this.code.getInstructions().get(this.PC);
+                //An instruction that sets redispatch has put another opcode
+                //and operand in place of its own for this pass through the 
+                //loop, so nothing is fetched from the stream.
+                if (redispatch) {
+                    redispatch = false;
+                } else {
+                    if (PC == instructionCount) {
+                        throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                                "ValueError: Function must return a value. Missing RETURN_VALUE instruction");
+                    }
 
-                if (JCoCo.stepOverInstructions) {
-                    break_point_command_loop();
+                    opcode = this.stream[2 * this.PC];
+                    operand = this.stream[2 * this.PC + 1];
+                    this.PC++;
                 }
 
-                this.PC++;
-                opcode = inst.getOpCode();
-                operand = inst.getOperand();
-
                 switch (opcode) {
+                    case DEBUG_STEP:
+                        //The debugger is entered before the instruction and
+                        //then the instruction is dispatched from the code 
+                        //stream. A superinstruction is run as the first 
+                        //instruction of its sequence, so the debugger 
+                        //stops before each of the others too.
+                        opcode = genericOf(codeStream[2 * (PC - 1)]);
+                        operand = codeStream[2 * (PC - 1) + 1];
+                        this.PC--;
+                        break_point_command_loop();
+                        this.PC++;
+                        redispatch = true;
+                        continue interpret;
                     case LOAD_FAST:
-                        u = this.locals.get(this.code.getLocals().get(operand));
+                        u = this.localSlots[operand];
                         if (u == null) {
                             throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                                     "NameError: name '" + this.code.getLocals().get(operand) + "' is not defined");
                         }
-                        this.opStack.push(u);
+                        this.push(u);
                         break;
                     case LOAD_CONST:
                         u = this.consts.get(operand);
-                        this.opStack.push(u);
+                        this.push(u);
+                        break;
+                    case LOAD_FAST_LOAD_FAST:
+                        //A superinstruction reads the operands of the rest
+                        //of its sequence from the code stream and skips 
+                        //over it. If it cannot do the work of the sequence
+                        //it runs the LOAD_FAST it replaced instead.
+                        u = this.localSlots[operand];
+                        v = this.localSlots[codeStream[2 * PC + 1]];
+                        if (u == null || v == null) {
+                            opcode = LOAD_FAST;
+                            redispatch = true;
+                            continue interpret;
+                        }
+                        this.push(u);
+                        this.push(v);
+                        this.PC++;
                         break;
+                    case ADD_CONST_FAST:
+                        u = this.localSlots[operand];
+                        v = this.consts.get(codeStream[2 * PC + 1]);
+                        if (u instanceof PyInt && v instanceof PyInt) {
+                            long sum = (long) ((PyInt) u).getVal() + ((PyInt) v).getVal();
+                            if (sum == (int) sum) {
+                                this.localSlots[codeStream[2 * (PC + 2) + 1]] = PyInt.valueOf((int) sum);
+                                this.PC += 3;
+                                break;
+                            }
+                        }
+                        opcode = LOAD_FAST;
+                        redispatch = true;
+                        continue interpret;
                     case LOAD_GLOBAL:
+                        //The cache of this instruction is good if nothing has
+                        //been stored in the globals since it was filled.
+                        if (namespace != null && globalCacheVersions[PC - 1] == namespace.getVersion()) {
+                            this.push(globalCacheValues[PC - 1]);
+                            break;
+                        }
                         u = this.globals.get(this.code.getGlobals().get(operand));
                         if (u == null) {
                             throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                                     "NameError: name '" + this.code.getGlobals().get(operand) + "' is not defined");
                         }
-                        this.opStack.push(u);
+                        if (namespace != null) {
+                            globalCacheValues[PC - 1] = u;
+                            globalCacheVersions[PC - 1] = namespace.getVersion();
+                        }
+                        this.push(u);
                         break;
                     case STORE_FAST:
-                        u = this.safetyPop();
-                        this.locals.put(this.code.getLocals().get(operand), u);
+                        u = this.pop();
+                        this.localSlots[operand] = u;
                         break;
 
                     case STORE_LOCALS:
-                        u = this.safetyPop();
+                        u = this.pop();
                         this.locals = ((PyMap) u).getMap();
                         break;
 
                     case STORE_NAME:
-                        u = this.safetyPop();
+                        u = this.pop();
+                        if (this.locals == null) {
+                            this.locals = new HashMap<String, PyObject>();
+                        }
                         this.locals.put(this.code.getGlobals().get(operand), u);
                         break;
 
                     case LOAD_NAME:
-                        u = this.locals.get(this.code.getGlobals().get(operand));
+                        u = (this.locals == null) ? null : this.locals.get(this.code.getGlobals().get(operand));
                         if (u == null) {
                             throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                                     "NameError: name '" + this.code.getGlobals().get(operand) + "' is not defined");
                         }
-                        this.opStack.push(u);
+                        this.push(u);
                         break;
 
                     case POP_TOP:
-                        u = this.safetyPop();
+                        u = this.pop();
                         break;
                     case COMPARE_OP:
-                        v = this.safetyPop();
-                        u = this.safetyPop();
-                        if (operand >= 6 && operand < 10) {
-                            //for these comparisons the method should be called on the
-                            //second argument (TOS), not the first (TOS1)
-                            PyObject tmp = u;
-                            u = v;
-                            v = tmp;
+                        v = this.pop();
+                        u = this.pop();
+                        if (operand < 6 && isNumber(u) && isNumber(v)) {
+                            boolean result = compareNumbers(operand, u, v);
+                            //When the comparison is followed by a conditional
+                            //jump, the jump is done here on the result so no 
+                            //bool is pushed for it to pop. The debug stream has
+                            //no jumps in it, so the debugger still steps 
+                            //through the two instructions separately.
+                            if (PC < instructionCount) {
+                                if (this.stream[2 * PC] == POP_JUMP_IF_FALSE) {
+                                    this.PC = result ? PC + 1 : codeStream[2 * PC + 1];
+                                    break;
+                                }
+                                if (this.stream[2 * PC] == POP_JUMP_IF_TRUE) {
+                                    this.PC = result ? codeStream[2 * PC + 1] : PC + 1;
+                                    break;
+                                }
+                            }
+                            w = PyBool.valueOf(result);
+                        } else {
+                            w = compare(callStack, operand, u, v);
                         }
-                        args = new ArrayList<PyObject>();
-                        args.add(v);
-
-                        //Please note that the line below depends on the cmp_op
-                        //arrat and it should be intialized to all comparison
-                        //operators. This list will need to expand at some point.
-                        //the cmp_op array is at the top of this module.
-                        w = u.callMethod(callStack, cmp_op[operand], args);
-                        //do not need to delete args, garbage collection will handle it
-                        this.opStack.push(w);
+                        this.push(w);
 
                         //The following must be done for exceptions because the
                         //END_FINALLY needs to know whether the exception was handled
@@ -344,18 +813,21 @@ class PyFrame extends PyObjectAdapter {
                         }
                         break;
                     case SETUP_LOOP:
-                        this.blockStack.push(operand);
+                        this.pushBlock(operand);
                         break;
                     case BREAK_LOOP:
-                        this.PC = this.blockStack.pop();
+                        this.PC = this.popBlock();
+                        //The loop may be left with its iterator still on the
+                        //operand stack.
+                        sp = this.poppedBlockHeight();
                         break;
                     case POP_BLOCK:
-                        if (this.blockStack.isEmpty()) {
+                        if (this.blockStackIsEmpty()) {
                             throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                                     "Attempt to pop empty block stack");
                         }
 
-                        this.blockStack.pop();
+                        this.popBlock();
                         break;
                     case JUMP_FORWARD:
                         //This instruction is not relative in this virtual machine
@@ -363,121 +835,104 @@ class PyFrame extends PyObjectAdapter {
                         this.PC = operand;
                         break;
                     case JUMP_ABSOLUTE:
+                        //A jump back to the top of a loop is counted. Once
+                        //the code is compiled, the rest of the call is run
+                        //by the compiled code from the top of the loop.
+                        if (operand < PC && this.code.countBackEdge()) {
+                            this.PC = operand;
+                            break interpret;
+                        }
                         this.PC = operand;
                         break;
                     case POP_JUMP_IF_TRUE:
-                        if (this.opStack.isEmpty()) {
-                            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                                    "Attempt to pop empty operand stack in POP_JUMP_IF_FALSE");
-                        }
-                        u = this.safetyPop();
-                        if (u.getType().str() != "bool") {
-                            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                                    "Illegal operand type for POP_JUMP_IF_FALSE: expected bool, got " + u.getType().str());
-                        }
-
-                        bu = (PyBool) u;
-
-                        if (bu.getVal() == true) {
+                        if (jumpIfTrue(this.pop())) {
                             this.PC = operand;
                         }
                         break;
                     case POP_JUMP_IF_FALSE:
-                        if (this.opStack.isEmpty()) {
-                            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                                    "Attempt to pop empty operand stack in POP_JUMP_IF_FALSE");
-                        }
-
-                        u = this.safetyPop();
-                        if (u.getType().str() != "bool") {
-                            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                                    "Illegal Operand Type for POP_JUMP_IF_FALSE");
-                        }
-
-                        bu = (PyBool) u;
-
-                        if (bu.getVal() == false) {
+                        if (jumpIfFalse(this.pop())) {
                             this.PC = operand;
                         }
                         break;
                     case BINARY_ADD:
                     case INPLACE_ADD:
-                        v = this.safetyPop();
-                        u = this.safetyPop();
-                        args = new ArrayList<PyObject>();
-                        args.add(v);
-
-                        w = u.callMethod(callStack, "__add__", args);
+                        v = this.pop();
+                        u = this.pop();
+                        w = add(callStack, u, v);
+                        if (u instanceof PyInt && v instanceof PyInt) {
+                            this.code.quicken(PC - 1, BINARY_ADD_INT);
+                        }
 
-                        this.opStack.push(w);
+                        this.push(w);
                         break;
                     case BINARY_SUBTRACT:
-                        v = this.safetyPop();
-                        u = this.safetyPop();
-                        args = new ArrayList<PyObject>();
-                        args.add(v);
-                        w = u.callMethod(callStack, "__sub__", args);
-                        this.opStack.push(w);
+                        v = this.pop();
+                        u = this.pop();
+                        w = subtract(callStack, u, v);
+                        this.push(w);
                         break;
                     case BINARY_MULTIPLY:
-                        v = this.safetyPop();
-                        u = this.safetyPop();
-                        args = new ArrayList<PyObject>();
-                        args.add(v);
-                        w = u.callMethod(callStack, "__mul__", args);
-                        this.opStack.push(w);
+                        v = this.pop();
+                        u = this.pop();
+                        w = multiply(callStack, u, v);
+                        this.push(w);
                         break;
                     case BINARY_FLOOR_DIVIDE:
-                        v = this.safetyPop();
-                        u = this.safetyPop();
-                        args = new ArrayList<PyObject>();
-                        args.add(v);
-                        w = u.callMethod(callStack, "__floordiv__", args);
-                        this.opStack.push(w);
+                        v = this.pop();
+                        u = this.pop();
+                        w = floorDivide(callStack, u, v);
+                        this.push(w);
                         break;
                     case BINARY_TRUE_DIVIDE:
-                        v = this.safetyPop();
-                        u = this.safetyPop();
-                        args = new ArrayList<PyObject>();
-                        args.add(v);
-                        w = u.callMethod(callStack, "__truediv__", args);
-                        this.opStack.push(w);
+                        v = this.pop();
+                        u = this.pop();
+                        w = trueDivide(callStack, u, v);
+                        this.push(w);
                         break;
                     case BINARY_MODULO:
-                        v = this.safetyPop();
-                        u = this.safetyPop();
-                        args = new ArrayList<PyObject>();
-                        args.add(v);
-                        w = u.callMethod(callStack, "__mod__", args);
-                        this.opStack.push(w);
+                        v = this.pop();
+                        u = this.pop();
+                        w = modulo(callStack, u, v);
+                        this.push(w);
                         break;
                     case BINARY_POWER:
-                        v = this.safetyPop();
-                        u = this.safetyPop();
-                        args = new ArrayList<PyObject>();
-                        args.add(v);
-                        w = u.callMethod(callStack, "__pow__", args);
-                        this.opStack.push(w);
+                        v = this.pop();
+                        u = this.pop();
+                        w = power(callStack, u, v);
+                        this.push(w);
                         break;
                     case GET_ITER:
-                        u = this.safetyPop();
-                        args = new ArrayList<PyObject>();
-                        v = u.callMethod(callStack, "__iter__", args);
-                        this.opStack.push(v);
+                        u = this.pop();
+                        v = u.callSlot(callStack, PyType.SLOT_ITER);
+                        this.push(v);
                         break;
                     case ROT_TWO:
-                        u = this.safetyPop();
-                        v = this.safetyPop();
-                        this.opStack.push(u);
-                        this.opStack.push(v);
+                        u = this.pop();
+                        v = this.pop();
+                        this.push(u);
+                        this.push(v);
                         break;
                     case FOR_ITER:
-                        u = this.safetyPop();
-                        args = new ArrayList<PyObject>();
+                        u = this.pop();
+                        if (u instanceof PyRangeIterator) {
+                            this.code.quicken(PC - 1, FOR_ITER_RANGE);
+                        }
+                        if (u instanceof PyIterator) {
+                            //A built-in iterator returns null when it has no
+                            //more values instead of raising StopIteration.
+                            v = ((PyIterator) u).nextOrNull();
+                            if (v == null) {
+                                this.PC = operand;
+                            } else {
+                                this.push(u);
+                                this.push(v);
+                            }
+                            break;
+                        }
                         try {
-                            v = u.callMethod(callStack, "__next__", args);
-                            this.opStack.push(u);
-                            this.opStack.push(v);
+                            v = u.callSlot(callStack, PyType.SLOT_NEXT);
+                            this.push(u);
+                            this.push(v);
                         } catch (PyException ex) {
                             if (ex.getExceptionType() == ExceptionType.PYSTOPITERATIONEXCEPTION) {
                                 this.PC = operand;
@@ -487,29 +942,29 @@ class PyFrame extends PyObjectAdapter {
                         }
                         break;
                     case CALL_FUNCTION:
-                        args = new ArrayList<PyObject>();
-                        //NOTE: Arguments are added backwards because they are popped
-                        //off the stack in reverse order. So, the called function
-                        //gets the arguments backwards
-                        for (i = 0; i < operand; i++) {
-                            u = this.safetyPop();
-                            args.add(u);
+                        sp -= operand + 1;
+                        v = this.callFromStack(opStack[sp], sp + 1, operand);
+                        this.push(v);
+                        break;
+                    case CALL_METHOD:
+                        sp -= operand + 2;
+                        if (opStack[sp] == null) {
+                            //LOAD_METHOD did not find a method, so the 
+                            //attribute above the null is called.
+                            v = this.callFromStack(opStack[sp + 1], sp + 2, operand);
+                        } else {
+                            //The method is called with the object it was 
+                            //found on as its first argument.
+                            v = this.callFromStack(opStack[sp], sp + 1, operand + 1);
                         }
-                        u = this.safetyPop();
-                        v = u.callMethod(callStack, "__call__", args);
-                        this.opStack.push(v);
-                        //don't need to delete args; garbage collection will handle it
+                        this.push(v);
                         break;
                     case RETURN_VALUE:
-                        if (this.opStack.isEmpty()) {
-                            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                                    "Attempt to pop empty stack in RETURN_VALUE");
-                        }
+                        u = this.pop();
+                        callStack.popFrame();
                         if (stepOnReturn) {
-                            JCoCo.stepOverInstructions = true;
+                            setStepping(callStack, true);
                         }
-                        u = safetyPop();
-                        callStack.popFrame();
 
                         if (JCoCo.stepOverInstructions) {
                             System.out.println("Interactive Debugger returning from function " + this.code.getName() + " ...");
@@ -521,87 +976,147 @@ class PyFrame extends PyObjectAdapter {
 
                         return u;
                     case LOAD_ATTR:
-                        u = this.safetyPop();
-                        v = u.get(this.code.getGlobals().get(operand));
-                        this.opStack.push(v);
+                        u = this.pop();
+                        v = this.code.getAttrCache(PC - 1).load(u, this.code.getGlobals().get(operand));
+                        this.push(v);
+                        break;
+                    case LOAD_METHOD:
+                        u = this.pop();
+                        name = this.code.getGlobals().get(operand);
+                        if (u instanceof PySuper) {
+                            w = ((PySuper) u).getMethod(name);
+                            if (w != null) {
+                                this.push(w);
+                                this.push(((PySuper) u).getSelf());
+                                break;
+                            }
+                        }
+                        w = this.code.getAttrCache(PC - 1).loadMethod(u, name);
+                        if (w != null) {
+                            this.push(w);
+                            this.push(u);
+                        } else {
+                            this.push(null);
+                            this.push(this.code.getAttrCache(PC - 1).load(u, name));
+                        }
                         break;
                     // what is store attr supposed to do?
                     case STORE_ATTR:
-                        u = this.safetyPop();
-                        v = this.safetyPop();
-                        u.set(this.code.getGlobals().get(operand), v);
+                        u = this.pop();
+                        v = this.pop();
+                        this.code.getAttrCache(PC - 1).store(u, this.code.getGlobals().get(operand), v);
                         break;
                     case BINARY_SUBSCR:
-                        u = this.safetyPop();
-                        v = this.safetyPop();
-                        args = new ArrayList<PyObject>();
-                        args.add(u);
-
-                        w = v.callMethod(callStack, "__getitem__", args);
-                        this.opStack.push(w);
+                        u = this.pop();
+                        v = this.pop();
+                        if (v instanceof PyList && u instanceof PyInt) {
+                            this.code.quicken(PC - 1, BINARY_SUBSCR_LIST_INT);
+                        }
+                        w = v.callSlot(callStack, PyType.SLOT_GETITEM, u);
+                        this.push(w);
                         break;
+                    case BINARY_ADD_INT:
+                        //The quickened instructions work on the operand
+                        //stack in place when their guard holds. Otherwise
+                        //they are deoptimized and the generic instruction
+                        //is dispatched, which also reports any error.
+                        if (sp >= 2 && opStack[sp - 1] instanceof PyInt && opStack[sp - 2] instanceof PyInt) {
+                            long sum = (long) ((PyInt) opStack[sp - 2]).getVal() + ((PyInt) opStack[sp - 1]).getVal();
+                            if (sum == (int) sum) {
+                                sp--;
+                                opStack[sp - 1] = PyInt.valueOf((int) sum);
+                                break;
+                            }
+                        }
+                        opcode = this.code.deoptimize(PC - 1);
+                        redispatch = true;
+                        continue interpret;
+                    case BINARY_SUBSCR_LIST_INT:
+                        if (sp >= 2 && opStack[sp - 1] instanceof PyInt && opStack[sp - 2] instanceof PyList
+                                && ((PyList) opStack[sp - 2]).dict == null) {
+                            i = ((PyInt) opStack[sp - 1]).getVal();
+                            args = ((PyList) opStack[sp - 2]).list();
+                            if (i >= 0 && i < args.size()) {
+                                sp--;
+                                opStack[sp - 1] = args.get(i);
+                                break;
+                            }
+                        }
+                        opcode = this.code.deoptimize(PC - 1);
+                        redispatch = true;
+                        continue interpret;
+                    case FOR_ITER_RANGE:
+                        if (sp >= 1 && opStack[sp - 1] instanceof PyRangeIterator) {
+                            v = ((PyRangeIterator) opStack[sp - 1]).nextOrNull();
+                            if (v == null) {
+                                sp--;
+                                this.PC = operand;
+                            } else {
+                                this.push(v);
+                            }
+                            break;
+                        }
+                        opcode = this.code.deoptimize(PC - 1);
+                        redispatch = true;
+                        continue interpret;
                     case STORE_SUBSCR:
-                        u = this.safetyPop();
-                        v = this.safetyPop();
-                        w = this.safetyPop();
-                        args = new ArrayList<PyObject>();
-                        args.add(w);
-                        args.add(u);
-
-                        w = v.callMethod(callStack, "__setitem__", args);
+                        u = this.pop();
+                        v = this.pop();
+                        w = this.pop();
+                        w = v.callSlot(callStack, PyType.SLOT_SETITEM, u, w);
                         break;
                     case LOAD_CLOSURE:
                         //the free or cell vars in the code object give us the name of the value
                         name = getCellName(operand);
 
                         //use the name to lookup the cell in the cellvar storage and push
-                        this.opStack.push(this.cellvars.get(name));
+                        this.push(this.cellvars.get(name));
                         break;
 
                     case BUILD_FUNLIST:
                         args = new ArrayList<PyObject>();
                         for (i = 0; i < operand; i++) {
-                            u = safetyPop();
+                            u = this.pop();
                             args.add(0, u);
                         }
 
-                        opStack.push(new PyFunList(args));
+                        this.push(new PyFunList(args));
                         break;
 
                     case SELECT_FUNLIST:
-                        u = safetyPop();
+                        u = this.pop();
                         if (u.getType().typeId() != PyType.PyTypeId.PyFunListType) {
                             throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Attempt to select elements of a funlist from non-funlist object.");
                         }
                         funlist = (PyFunList) u;
-                        opStack.push(funlist.getTail());
-                        opStack.push(funlist.getHead());
+                        this.push(funlist.getTail());
+                        this.push(funlist.getHead());
                         break;
 
                     case CONS_FUNLIST:
-                        u = safetyPop();
-                        v = safetyPop();
+                        u = this.pop();
+                        v = this.pop();
                         if (u.getType().typeId() != PyType.PyTypeId.PyFunListType) {
                             throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Attempt to construct a funlist without a funlist tail.");
                         }
                         funlist = (PyFunList) u;
-                        opStack.push(new PyFunList(v, funlist));
+                        this.push(new PyFunList(v, funlist));
                         break;
 
                     case LOAD_BUILD_CLASS:
-                        this.opStack.push(new PyBuildClass(globals));
+                        this.push(new PyBuildClass(globals));
                         break;
 
                     case BUILD_TUPLE:
                         args = new ArrayList<PyObject>();
                         for (i = 0; i < operand; i++) {
-                            u = this.safetyPop();
+                            u = this.pop();
                             args.add(0, u);
                         }
-                        this.opStack.push(new PyTuple(args));
+                        this.push(new PyTuple(args));
                         break;
                     case SELECT_TUPLE:
-                        u = this.safetyPop();
+                        u = this.pop();
                         if (u.getType().typeId() != PyTypeId.PyTupleType) {
                             throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                                     "Attempt to select elements of a tuple from a non-tuple object");
@@ -615,47 +1130,45 @@ class PyFrame extends PyObjectAdapter {
                         }
 
                         for (i = tuple.size() - 1; i >= 0; i--) {
-                            this.opStack.push(tuple.getVal(i));
+                            this.push(tuple.getVal(i));
                         }
                         break;
                     case BUILD_LIST:
                         args = new ArrayList<PyObject>();
                         for (i = 0; i < operand; i++) {
-                            u = this.safetyPop();
+                            u = this.pop();
                             args.add(0, u);
                         }
 
-                        this.opStack.push(new PyList(args));
+                        this.push(new PyList(args));
                         break;
                     case MAKE_CLOSURE:
-                        u = this.safetyPop();
-                        v = this.safetyPop();
+                        u = this.pop();
+                        v = this.pop();
                         w = new PyFunction((PyCode) u, this.globals, v);
-                        this.opStack.push(w);
+                        this.push(w);
                         break;
                     case MAKE_FUNCTION:
-                        u = this.safetyPop();
+                        u = this.pop();
                         w = new PyFunction((PyCode) u, this.globals, null);
-                        this.opStack.push(w);
+                        this.push(w);
                         break;
                     case STORE_DEREF:
-                        u = this.safetyPop();
+                        u = this.pop();
                         cell = this.cellvars.get(getCellName(operand));
                         cell.set(u);
                         break;
                     case LOAD_DEREF:
                         cell = this.cellvars.get(getCellName(operand));
-                        this.opStack.push(cell.deref());
+                        this.push(cell.deref());
                         break;
                     case SETUP_EXCEPT:
                         //multiplying by -1 is because any value less than 0 is
                         // for a try except
-                        this.blockStack.push(-1 * operand);
-
-                        // We put a marker on the operand stack in case an exception occurs. If
-                        // a marker is popped (by safetyPop) it is thrown away so that the machine
-                        // does not see the marker. If an exception occurs we'll look for the marker.
-                        opStack.push(new PyMarker());
+                        // The block records the height of the operand stack so 
+                        // that if an exception occurs the stack can be cut back
+                        // to it before the handler is run.
+                        this.pushBlock(-1 * operand);
                         break;
                     case RAISE_VARARGS:
                         // This is not currently implemented according to the
@@ -668,22 +1181,13 @@ class PyFrame extends PyObjectAdapter {
                         // In this interpreter, currently exceptions contain the traceback
                         // and there is always one argument to the RAISE_VARARGS
                         // instruction, which is the value stored in the exception
-                        u = this.safetyPop();
+                        u = this.pop();
                         throw ((PyException) u);
                     case DUP_TOP:
-                        if (this.opStack.isEmpty()) {
-                            throw new PyException(ExceptionType.PYEMPTYSTACKEXCEPTION,
-                                    "Attempt to duplicate top of empty operand stack");
-                        }
-                        this.opStack.push(this.opStack.top());
+                        this.push(this.top());
                         break;
                     case SETUP_FINALLY:
-                        this.blockStack.push(-1 * operand);
-                        // We put a marker on the operand stack in case an exception occurs. If
-                        // a marker is popped (by safetyPop) it is thrown away so that the machine
-                        // does not see the marker. When we get to the END_FINALLY we'll clean up
-                        // the operand stack of anything left.
-                        opStack.push(new PyMarker());
+                        this.pushBlock(-1 * operand);
                         break;
                     case END_FINALLY:
                         if (!handled) {
@@ -696,22 +1200,24 @@ class PyFrame extends PyObjectAdapter {
                             u = this.safetyPop();
                             v = this.safetyPop();
                             w = this.safetyPop();
-                            this.blockStack.pop();
+                            this.popBlock();
 
                             throw ((PyException) u);
                         }
-                        // when the SETUP_FINALLY was executed, a marker was added to the operand stack
-                        // in case an exception occurrred. Now that we are done processing the finally,
-                        // we clean up the operand stack to this point.
-                        if (!opStack.isEmpty()) {
-                            PyObject obj = opStack.pop();
-                            while (!obj.str().equals("Marker") && !opStack.isEmpty()) {
-                                obj = opStack.pop();
+                        // Otherwise we are done with the finally. TOS is either 
+                        // the None pushed before the finally block or an exception 
+                        // that was handled, which was pushed with its value and
+                        // traceback. Either way, we clean up the operand stack to 
+                        // where it was when the block was set up.
+                        if (!this.opStackIsEmpty()) {
+                            u = this.pop();
+                            if (u instanceof PyException && sp >= 2) {
+                                sp -= 2;
                             }
                         }
                         break;
                     case POP_EXCEPT:
-                        operand = this.blockStack.pop();
+                        operand = this.popBlock();
                         if (operand > 0) {
                             throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                                     "Pop of block stack was for non-exception handling block.");
@@ -721,20 +1227,20 @@ class PyFrame extends PyObjectAdapter {
                         //The purpose of this instruction is not well understood.
                         //According to the definition, it deletes the local variable
                         //found at the index operand.
-                        this.locals.remove(this.code.getLocals().get(operand));
+                        this.localSlots[operand] = null;
                         break;
                     case BREAK_POINT:
                         this.printDebuggerPrompt = true;
-                        JCoCo.stepOverInstructions = true;
+                        setStepping(callStack, true);
                         break;
                     default:
-                        throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Unimplemented instruction: " + inst.getOpCodeName());
+                        throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Unimplemented instruction: " + opCodeName(opcode));
                 }
             } catch (PyException ex) {
                 int exitAddress;
                 boolean found = false;
-                while (!found && !this.blockStack.isEmpty()) {
-                    exitAddress = this.blockStack.pop();
+                while (!found && !this.blockStackIsEmpty()) {
+                    exitAddress = this.popBlock();
                     if (exitAddress < 0) {
                         found = true;
                         if (JCoCo.verbose) {
@@ -747,25 +1253,20 @@ class PyFrame extends PyObjectAdapter {
                             System.err.println("******************End Handling Exception*****************");
                         }
 
-                        // when the SETUP_EXCEPT was executed, a marker was added to the operand stack
-                        // in case an exception occurrred. Now that we are processing the exception,
-                        // we clean up the operand stack to this point.
-                        if (!opStack.isEmpty()) {
-                            PyObject obj = opStack.pop();
-                            while (!obj.str().equals("Marker") && !opStack.isEmpty()) {
-                                obj = opStack.pop();
-                            }
-                        }
+                        // The operand stack is cut back to its height when the 
+                        // SETUP_EXCEPT was executed, throwing away anything the 
+                        // try block left on it.
+                        sp = this.poppedBlockHeight();
 
                         // The exception is pushed onto the operand stack for processing
-                        this.opStack.push(ex.getTraceBack()); //The tracebakc at TOS2
-                        this.opStack.push(ex); //the parameter (in our case the exception) at TOS1
-                        this.opStack.push(ex); //the exception at TOS
+                        this.push(ex.getTraceBack()); //The tracebakc at TOS2
+                        this.push(ex); //the parameter (in our case the exception) at TOS1
+                        this.push(ex); //the exception at TOS
                         //the location to resume execution was found on the block stack
                         this.PC = -1 * exitAddress;
 
                         //An implicitly pushed exception handling block is pushed for the handler
-                        this.blockStack.push(0);
+                        this.pushBlock(0);
                     }
                 }
 
@@ -775,7 +1276,7 @@ class PyFrame extends PyObjectAdapter {
                 }
             } catch (Exception e) {
                 PyException ex = new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                        e.getMessage() + " while executing instruction " + inst.getOpCodeName());
+                        e.getMessage() + " while executing instruction " + opCodeName(opcode));
                 if (JCoCo.verbose) {
                     System.err.println("*********************Exception***************************");
                     e.printStackTrace();
@@ -786,6 +1287,7 @@ class PyFrame extends PyObjectAdapter {
 
         }
 
+        return this.code.getCompiled().run(callStack, this.localSlots, this, this.PC, this.opStack);
     }
 
 }
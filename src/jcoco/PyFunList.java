@@ -22,9 +22,6 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
 
     public PyFunList() {
         super("funlist", PyType.PyTypeId.PyFunListType);
-        PyFunList self = this;
-        initMethods(funs());
-
     }
 
     public PyFunList(ArrayList<PyObject> lst) {
@@ -86,13 +83,18 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyFunList self = (PyFunList) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyFunList self = (PyFunList) selfArg;
 
                 if (self.data == null) {
                     throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Attempt to index into an empty funlist.");
                 }
 
-                PyInt intObj = (PyInt) args.get(0);
+                PyInt intObj = (PyInt) arg1;
                 int index = intObj.getVal();
 
                 if (index >= self.data.getLen()) {
@@ -112,32 +114,40 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
         funs.put("__len__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyFunList self = (PyFunList) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFunList self = (PyFunList) selfArg;
 
                 if (self.data == null) {
-                    return new PyInt(0);
+                    return PyInt.valueOf(0);
                 }
 
-                return new PyInt(self.data.getLen());
+                return PyInt.valueOf(self.data.getLen());
             }
         });
 
         funs.put("__iter__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyFunList self = (PyFunList) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFunList self = (PyFunList) selfArg;
 
                 return new PyFunListIterator(self);
             }
@@ -146,14 +156,18 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
         funs.put("__add__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyFunList self = (PyFunList) args.get(args.size() - 1);
-                PyFunList other = (PyFunList) args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyFunList self = (PyFunList) selfArg;
+                PyFunList other = (PyFunList) arg1;
                 PyStack<PyObject> tmpStack = new PyStack<PyObject>();
                 PyFunListElm tmp = self.data;
                 PyObject val;
@@ -177,13 +191,17 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
         funs.put("head", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyFunList self = (PyFunList) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFunList self = (PyFunList) selfArg;
 
                 if (self.data == null) {
                     throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
@@ -202,7 +220,12 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyFunList self = (PyFunList) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFunList self = (PyFunList) selfArg;
 
                 if (self.data == null) {
                     throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
@@ -217,13 +240,17 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
         funs.put("concat", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyFunList self = (PyFunList) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFunList self = (PyFunList) selfArg;
                 String s = "";
 
                 PyFunListElm tmp = self.data;
@@ -240,29 +267,33 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
         funs.put("__eq__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyFunList self = (PyFunList) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyFunList self = (PyFunList) selfArg;
 
-                //We should check the type of args[0] before casting it. 
-                if (self.getType().typeId() != args.get(0).getType().typeId()) {
-                    return new PyBool(false);
+                //We should check the type of arg1 before casting it. 
+                if (self.getType().typeId() != arg1.getType().typeId()) {
+                    return PyBool.FALSE;
                 }
 
-                PyFunList other = (PyFunList) args.get(0);
+                PyFunList other = (PyFunList) arg1;
                 PyFunListElm tmp = self.data;
                 PyFunListElm otherTmp = other.data;
 
                 if (tmp == null) {
-                    return new PyBool(otherTmp == null);
+                    return PyBool.valueOf(otherTmp == null);
                 }
 
                 if (tmp.getLen() != otherTmp.getLen()) {
-                    return new PyBool(false);
+                    return PyBool.FALSE;
                 }
                 ArrayList<PyObject> newargs = new ArrayList<PyObject>();
 
@@ -280,7 +311,7 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
                     otherTmp = otherTmp.getTail();
                 }
 
-                return new PyBool(true);
+                return PyBool.TRUE;
             }
         });
 
@@ -299,10 +330,10 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
                 boolean v = result.getVal();
 
                 if (v) {
-                    return new PyBool(false);
+                    return PyBool.FALSE;
                 }
 
-                return new PyBool(true);
+                return PyBool.TRUE;
             }
         });
 
@@ -327,7 +358,7 @@ public class PyFunList extends PyPrimitiveTypeAdapter {
                     current = current.getTail();
                 }
 
-                return new PyInt(total);
+                return PyInt.valueOf(total);
             }
         });
 
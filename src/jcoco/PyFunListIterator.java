@@ -14,29 +14,43 @@ package jcoco;
 import java.util.ArrayList;
 import java.util.HashMap;
 
-public class PyFunListIterator extends PyPrimitiveTypeAdapter {
+public class PyFunListIterator extends PyPrimitiveTypeAdapter implements PyIterator {
 
     private PyFunListElm element;
 
     public PyFunListIterator(PyFunList lst) {
         super("funlist_iterator", PyType.PyTypeId.PyFunListIteratorType);
-        initMethods(funs());
         this.element = lst.getElm();
     }
 
+    @Override
+    public PyObject nextOrNull() {
+        if (this.element == null) {
+            return null;
+        }
+
+        PyObject item = this.element.getHead();
+        this.element = this.element.getTail();
+        return item;
+    }
+
     public static HashMap<String, PyCallable> funs() {
         HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
 
         funs.put("__iter__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyFunListIterator self = (PyFunListIterator) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFunListIterator self = (PyFunListIterator) selfArg;
 
                 return self;
             }
@@ -45,21 +59,24 @@ public class PyFunListIterator extends PyPrimitiveTypeAdapter {
         funs.put("__next__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyFunListIterator self = (PyFunListIterator) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyFunListIterator self = (PyFunListIterator) selfArg;
+                PyObject item = self.nextOrNull();
 
-                if (self.element == null) {
+                if (item == null) {
                     throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION,
                             "Stopping Iteration");
                 }
 
-                PyObject item = self.element.getHead();
-                self.element = self.element.getTail();
                 return item;
             }
         });
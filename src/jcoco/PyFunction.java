@@ -35,14 +35,6 @@ public class PyFunction extends PyCallableAdapter {
         for (int i = 0; i < theCode.getFreeVars().size(); i++) {
             this.cellvars.put(theCode.getFreeVars().get(i), (PyCell)tuple.getVal(i));
         }
-        
-        PyFunction self = this;
-        this.dict.put("__call__", new PyCallableAdapter() {
-            @Override
-            public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args)  {
-                return self.__call__(callStack, args);
-            }
-        });
     }
 
     @Override
@@ -59,6 +51,77 @@ public class PyFunction extends PyCallableAdapter {
         return result;
     }
     
+    @Override
+    public PyObject call0(PyCallStack callStack) {
+        PyObject[] slots = this.newSlots(0);
+        
+        return this.execute(callStack, slots, 0);
+    }
+    
+    @Override
+    public PyObject call1(PyCallStack callStack, PyObject arg0) {
+        PyObject[] slots = this.newSlots(1);
+        slots[0] = arg0;
+        
+        return this.execute(callStack, slots, 1);
+    }
+    
+    @Override
+    public PyObject call2(PyCallStack callStack, PyObject arg0, PyObject arg1) {
+        PyObject[] slots = this.newSlots(2);
+        slots[0] = arg0;
+        slots[1] = arg1;
+        
+        return this.execute(callStack, slots, 2);
+    }
+    
+    @Override
+    public PyObject call3(PyCallStack callStack, PyObject arg0, PyObject arg1, PyObject arg2) {
+        PyObject[] slots = this.newSlots(3);
+        slots[0] = arg0;
+        slots[1] = arg1;
+        slots[2] = arg2;
+        
+        return this.execute(callStack, slots, 3);
+    }
+    
+    // Calls the function with the count arguments found in order in stack 
+    // starting at index start. CALL_FUNCTION uses this to copy the arguments 
+    // straight from its operand stack into the local slots of the new frame.
+    // When self is not null it is passed as the first argument, which is how
+    // a method bound to this function is called.
+    PyObject callFromStack(PyCallStack callStack, PyObject self, PyObject[] stack, int start, int count) {
+        if (self == null) {
+            PyObject[] slots = this.newSlots(count);
+            System.arraycopy(stack, start, slots, 0, count);
+            return this.execute(callStack, slots, count);
+        }
+        
+        PyObject[] slots = this.newSlots(count + 1);
+        slots[0] = self;
+        System.arraycopy(stack, start, slots, 1, count);
+        
+        return this.execute(callStack, slots, count + 1);
+    }
+    
+    // Checks the number of arguments of a call and allocates the local slots
+    // of the frame that will execute it so the arguments can be stored 
+    // directly in them.
+    private PyObject[] newSlots(int argCount) {
+        if (argCount != this.code.getArgCount()) {
+            throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, 
+                                    "Type Error: expected "+this.code.getArgCount() + " arguments, got "+argCount);
+        }
+        
+        return new PyObject[this.code.getLocals().size()];
+    }
+    
+    private PyObject execute(PyCallStack callStack, PyObject[] slots, int argCount) {
+        PyFrame frame = new PyFrame(callStack, this.code, slots, argCount, this.globals, this.code.getConsts(), this.cellvars);
+        
+        return frame.execute();
+    }
+    
     @Override
     public PyType getType() {
         return JCoCo.PyTypes.get(PyTypeId.PyFunctionType);
@@ -8,7 +8,11 @@
  * KIND.
  *
  * Description:
- * The JCoCo implementation of Integer objects.
+ * The JCoCo implementation of Integer objects. PyInt objects are immutable,
+ * so valueOf returns a preallocated PyInt for the small values that programs
+ * use most. The cached range is -128..1024 by default and can be changed
+ * with the jcoco.intcache.low and jcoco.intcache.high system properties 
+ * (e.g. java -Djcoco.intcache.high=4096 ...).
  */
 package jcoco;
 
@@ -19,14 +23,32 @@ import java.util.HashMap;
 
 public class PyInt extends PyPrimitiveTypeAdapter {
 
+    private static final int CACHE_LOW = Integer.getInteger("jcoco.intcache.low", -128);
+    private static final int CACHE_HIGH = Integer.getInteger("jcoco.intcache.high", 1024);
+    private static final PyInt[] cache = createCache();
+
     private int val;
 
-    public PyInt(int iVal) {
+    private PyInt(int iVal) {
         super("int",PyTypeId.PyIntType);
-        initMethods(funs());
         this.val = iVal;
     }
 
+    private static PyInt[] createCache() {
+        PyInt[] ints = new PyInt[Math.max(0, CACHE_HIGH - CACHE_LOW + 1)];
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = new PyInt(CACHE_LOW + i);
+        }
+        return ints;
+    }
+
+    public static PyInt valueOf(int iVal) {
+        if (iVal >= CACHE_LOW && iVal <= CACHE_HIGH) {
+            return cache[iVal - CACHE_LOW];
+        }
+        return new PyInt(iVal);
+    }
+
     @Override
     public String str() {
         return this.val + "";
@@ -48,32 +70,41 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
 
-                return new PyInt(Math.abs(self.val));
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyInt self = (PyInt) selfArg;
+
+                return PyInt.valueOf(Math.abs(self.val));
             }
         });
 
         funs.put("__add__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                PyInt x;
-                PyFloat y;
-
                 if (args.size() != 2) {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyObject arg = args.get(0);
-                PyInt self = (PyInt) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt x;
+                PyFloat y;
+
+                PyInt self = (PyInt) selfArg;
 
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
                         // Math.addExact throws an Arithmetic overflow exception 
                         // if it overflows. 
-                        return new PyInt(Math.addExact(self.val, x.val));
+                        return PyInt.valueOf(Math.addExact(self.val, x.val));
                     case PyFloatType:
                         y = (PyFloat) arg;
                         return new PyFloat(self.val + y.val);
@@ -90,21 +121,25 @@ public class PyInt extends PyPrimitiveTypeAdapter {
         funs.put("__sub__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                PyInt x;
-                PyFloat y;
-
                 if (args.size() != 2) {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt x;
+                PyFloat y;
+
+                PyInt self = (PyInt) selfArg;
 
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
-                        return new PyInt(Math.subtractExact(self.val,x.getVal()));
+                        return PyInt.valueOf(Math.subtractExact(self.val,x.getVal()));
                     case PyFloatType:
                         y = (PyFloat) arg;
                         return new PyFloat(self.val - y.getVal());
@@ -121,23 +156,27 @@ public class PyInt extends PyPrimitiveTypeAdapter {
         funs.put("__mul__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                PyInt x;
-                PyFloat y;
-
                 if (args.size() != 2) {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt x;
+                PyFloat y;
+
+                PyInt self = (PyInt) selfArg;
 
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
                         // Math.multiplyExact throws an Arithmetic overflow exception 
                         // if it overflows.
-                        return new PyInt(Math.multiplyExact(self.val, x.getVal()));
+                        return PyInt.valueOf(Math.multiplyExact(self.val, x.getVal()));
                     case PyFloatType:
                         y = (PyFloat) arg;
                         return new PyFloat(self.val * y.getVal());
@@ -155,21 +194,25 @@ public class PyInt extends PyPrimitiveTypeAdapter {
         funs.put("__pow__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                PyInt x;
-                PyFloat y;
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt x;
+                PyFloat y;
+
+                PyInt self = (PyInt) selfArg;
 
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
-                        return new PyInt((int) Math.pow(self.val, x.getVal()));
+                        return PyInt.valueOf((int) Math.pow(self.val, x.getVal()));
 
                     case PyFloatType:
                         y = (PyFloat) arg;
@@ -186,16 +229,20 @@ public class PyInt extends PyPrimitiveTypeAdapter {
         funs.put("__truediv__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                PyInt x;
-                PyFloat y;
-
                 if (args.size() != 2) {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt x;
+                PyFloat y;
+
+                PyInt self = (PyInt) selfArg;
 
                 switch (arg.getType().typeId()) {
                     case PyIntType:
@@ -233,16 +280,20 @@ public class PyInt extends PyPrimitiveTypeAdapter {
         funs.put("__floordiv__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                PyInt x;
-                PyFloat y;
-
                 if (args.size() != 2) {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt x;
+                PyFloat y;
+
+                PyInt self = (PyInt) selfArg;
 
                 switch (arg.getType().typeId()) {
                     case PyIntType:
@@ -251,7 +302,7 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                             throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                                     "ZeroDivisionError: division by zero");
                         }
-                        return new PyInt(self.val / x.getVal());
+                        return PyInt.valueOf(self.val / x.getVal());
 
                     case PyFloatType:
                         y = (PyFloat) arg;
@@ -279,16 +330,20 @@ public class PyInt extends PyPrimitiveTypeAdapter {
         funs.put("__mod__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                PyInt x;
-                PyFloat y;
-
                 if (args.size() != 2) {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt x;
+                PyFloat y;
+
+                PyInt self = (PyInt) selfArg;
 
                 switch (arg.getType().typeId()) {
                     case PyIntType:
@@ -297,7 +352,7 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                             throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                                     "ZeroDivisionError: division or modulo by zero");
                         }
-                        return new PyInt(self.val % x.getVal());
+                        return PyInt.valueOf(self.val % x.getVal());
 
                     case PyFloatType:
                         y = (PyFloat) arg;
@@ -313,7 +368,7 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                             throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                                     "ZeroDivisionError: division or modulo by zero");
                         }
-                        return new PyInt(0);
+                        return PyInt.valueOf(0);
 
                     default:
                         throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
@@ -330,8 +385,12 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt self = (PyInt) selfArg;
                 PyInt x;
                 double d;
                 PyFloat y;
@@ -339,18 +398,18 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
-                        return new PyBool(self.val == x.getVal());
+                        return PyBool.valueOf(self.val == x.getVal());
 
                     case PyFloatType:
                         y = (PyFloat) arg;
-                        return new PyBool(self.val == y.getVal());
+                        return PyBool.valueOf(self.val == y.getVal());
 
                     case PyBoolType:
                         PyBool z = (PyBool) arg;
-                        return new PyBool(self.val == z.getIntVal());
+                        return PyBool.valueOf(self.val == z.getIntVal());
 
                     default:
-                        return new PyBool(false);
+                        return PyBool.FALSE;
                 }
             }
         });
@@ -363,8 +422,12 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt self = (PyInt) selfArg;
                 PyInt x;
                 double d;
                 PyFloat y;
@@ -372,18 +435,18 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
-                        return new PyBool(self.val != x.getVal());
+                        return PyBool.valueOf(self.val != x.getVal());
 
                     case PyFloatType:
                         y = (PyFloat) arg;
-                        return new PyBool(self.val != y.getVal());
+                        return PyBool.valueOf(self.val != y.getVal());
 
                     case PyBoolType:
                         PyBool z = (PyBool) arg;
-                        return new PyBool(self.val != z.getIntVal());
+                        return PyBool.valueOf(self.val != z.getIntVal());
 
                     default:
-                        return new PyBool(true);
+                        return PyBool.TRUE;
                 }
             }
         });
@@ -396,8 +459,12 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt self = (PyInt) selfArg;
                 PyInt x;
                 double d;
                 PyFloat y;
@@ -405,15 +472,15 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
-                        return new PyBool(self.val < x.getVal());
+                        return PyBool.valueOf(self.val < x.getVal());
 
                     case PyFloatType:
                         y = (PyFloat) arg;
-                        return new PyBool(self.val < y.getVal());
+                        return PyBool.valueOf(self.val < y.getVal());
 
                     case PyBoolType:
                         PyBool z = (PyBool) arg;
-                        return new PyBool(self.val < z.getIntVal());
+                        return PyBool.valueOf(self.val < z.getIntVal());
 
                     default:
                         throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
@@ -430,8 +497,12 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt self = (PyInt) selfArg;
                 PyInt x;
                 double d;
                 PyFloat y;
@@ -439,15 +510,15 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
-                        return new PyBool(self.val <= x.getVal());
+                        return PyBool.valueOf(self.val <= x.getVal());
 
                     case PyFloatType:
                         y = (PyFloat) arg;
-                        return new PyBool(self.val <= y.getVal());
+                        return PyBool.valueOf(self.val <= y.getVal());
 
                     case PyBoolType:
                         PyBool z = (PyBool) arg;
-                        return new PyBool(self.val <= z.getIntVal());
+                        return PyBool.valueOf(self.val <= z.getIntVal());
 
                     default:
                         throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
@@ -464,8 +535,12 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt self = (PyInt) selfArg;
                 PyInt x;
                 double d;
                 PyFloat y;
@@ -473,15 +548,15 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
-                        return new PyBool(self.val > x.getVal());
+                        return PyBool.valueOf(self.val > x.getVal());
 
                     case PyFloatType:
                         y = (PyFloat) arg;
-                        return new PyBool(self.val > y.getVal());
+                        return PyBool.valueOf(self.val > y.getVal());
 
                     case PyBoolType:
                         PyBool z = (PyBool) arg;
-                        return new PyBool(self.val > z.getIntVal());
+                        return PyBool.valueOf(self.val > z.getIntVal());
 
                     default:
                         throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
@@ -498,8 +573,12 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyInt self = (PyInt) selfArg;
                 PyInt x;
                 double d;
                 PyFloat y;
@@ -507,15 +586,15 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                 switch (arg.getType().typeId()) {
                     case PyIntType:
                         x = (PyInt) arg;
-                        return new PyBool(self.val >= x.getVal());
+                        return PyBool.valueOf(self.val >= x.getVal());
 
                     case PyFloatType:
                         y = (PyFloat) arg;
-                        return new PyBool(self.val >= y.getVal());
+                        return PyBool.valueOf(self.val >= y.getVal());
 
                     case PyBoolType:
                         PyBool z = (PyBool) arg;
-                        return new PyBool(self.val >= z.getIntVal());
+                        return PyBool.valueOf(self.val >= z.getIntVal());
 
                     default:
                         throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
@@ -531,7 +610,13 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
-                PyInt self = (PyInt) args.get(args.size() - 1);
+
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyInt self = (PyInt) selfArg;
 
                 return new PyFloat(self.getVal());
             }
@@ -545,7 +630,12 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyInt self = (PyInt) selfArg;
                 return self;
             }
         });
@@ -558,12 +648,17 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyInt self = (PyInt) selfArg;
 
                 if (self.getVal() == 0) {
-                    return new PyBool(false);
+                    return PyBool.FALSE;
                 }
-                return new PyBool(true);
+                return PyBool.TRUE;
             }
         });
 
@@ -575,7 +670,12 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyInt self = (PyInt) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyInt self = (PyInt) selfArg;
 
                 return new PyStr(self.str());
             }
@@ -594,7 +694,7 @@ public class PyInt extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 0 arguments, got " + args.size());
                 }
 
-                return new PyInt(0);
+                return PyInt.valueOf(0);
             }
         });
 
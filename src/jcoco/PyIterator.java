@@ -0,0 +1,23 @@
+/**
+ * PyIterator.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * PyIterator is implemented by the built-in iterators (list, tuple, str, range,
+ * funlist and file iterators). A call to __next__ on an iterator that has no
+ * more values raises a StopIteration exception, which is how the FOR_ITER
+ * instruction finds the end of a loop when the iterator is some other object.
+ * When it is a PyIterator, FOR_ITER calls nextOrNull instead, which returns
+ * null at the end of the iteration so no exception is thrown to end the loop.
+ */
+package jcoco;
+
+public interface PyIterator extends PyObject {
+
+    public PyObject nextOrNull();
+}
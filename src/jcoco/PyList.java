@@ -28,7 +28,6 @@ public class PyList extends PyPrimitiveTypeAdapter {
     public PyList(ArrayList<PyObject> data) {
         super("list", PyTypeId.PyListType);
         this.data = data;
-        initMethods(funs());
     }
 
     public PyObject getVal(int index) {
@@ -84,8 +83,13 @@ public class PyList extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyList self = (PyList) args.get(args.size() - 1);
-                PyInt intObj = (PyInt) args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyList self = (PyList) selfArg;
+                PyInt intObj = (PyInt) arg1;
 
                 return self.getVal(intObj.getVal());
             }
@@ -98,16 +102,21 @@ public class PyList extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 3 arguments, got " + args.size());
                 }
 
-                PyList self = (PyList) args.get(args.size() - 1);
-                PyInt index = (PyInt) args.get(1);
+                return call3(callStack, args.get(2), args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call3(PyCallStack callStack, PyObject selfArg, PyObject arg1, PyObject arg2) {
+                PyList self = (PyList) selfArg;
+                PyInt index = (PyInt) arg1;
 
                 if (index.getVal() >= self.data.size()) {
                     throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION, "List index out of bounds, size=" + self.data.size() + ", index=" + index.str());
                 }
                 //set the object at the index of the first argument to the second arg
-                self.setVal(index.getVal(), args.get(0));
+                self.setVal(index.getVal(), arg2);
 
-                return new PyNone();
+                return PyNone.NONE;
             }
         });
         funs.put("__len__", new PyCallableAdapter() {
@@ -118,8 +127,13 @@ public class PyList extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyList self = (PyList) args.get(args.size() - 1);
-                return new PyInt(self.data.size());
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyList self = (PyList) selfArg;
+                return PyInt.valueOf(self.data.size());
             }
         });
         funs.put("__iter__", new PyCallableAdapter() {
@@ -130,7 +144,12 @@ public class PyList extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyList self = (PyList) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyList self = (PyList) selfArg;
                 return new PyListIterator(self);
             }
         });
@@ -143,10 +162,15 @@ public class PyList extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyList self = (PyList) args.get(args.size() - 1);
-                self.data.add(args.get(0));
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyList self = (PyList) selfArg;
+                self.data.add(arg1);
 
-                return new PyNone();
+                return PyNone.NONE;
             }
         });
 
@@ -158,10 +182,14 @@ public class PyList extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyList self = (PyList) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyList self = (PyList) selfArg;
 
-                if (args.get(0).getType().typeId() != PyType.PyTypeId.PyListType) {
+                if (arg.getType().typeId() != PyType.PyTypeId.PyListType) {
                     throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                             "TypeError: unsupported operand type(s) for +: 'list' and '" + arg.getType().str() + "'");
                 }
@@ -181,10 +209,14 @@ public class PyList extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyList self = (PyList) args.get(args.size() - 1);
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
+                PyList self = (PyList) selfArg;
 
-                if (args.get(0).getType().typeId() != PyType.PyTypeId.PyIntType) {
+                if (arg.getType().typeId() != PyType.PyTypeId.PyIntType) {
                     throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                             "TypeError: unsupported operand type(s) for +: 'list' and '" + arg.getType().str() + "'");
                 }
@@ -208,18 +240,23 @@ public class PyList extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyList self = (PyList) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyList self = (PyList) selfArg;
 
-                //We should check the type of args[0] before casting it. 
-                if (self.getType().typeId() != args.get(0).getType().typeId()) {
-                    return new PyBool(false);
+                //We should check the type of arg1 before casting it. 
+                if (self.getType().typeId() != arg1.getType().typeId()) {
+                    return PyBool.FALSE;
                 }
 
-                PyList other = (PyList) args.get(0);
+                PyList other = (PyList) arg1;
                 ArrayList<PyObject> newargs = new ArrayList<PyObject>();
 
                 if (self.data.size() != other.data.size()) {
-                    return new PyBool(false);
+                    return PyBool.FALSE;
                 }
 
                 for (int i = 0; i < self.data.size(); i++) {
@@ -232,7 +269,7 @@ public class PyList extends PyPrimitiveTypeAdapter {
                     newargs.remove(newargs.size() - 1); // remove the argument from the vector
                 }
 
-                return new PyBool(true);
+                return PyBool.TRUE;
 
             }
         });
@@ -250,10 +287,10 @@ public class PyList extends PyPrimitiveTypeAdapter {
                 boolean v = result.getVal();
 
                 if (v) {
-                    return new PyBool(false);
+                    return PyBool.FALSE;
                 }
 
-                return new PyBool(true);
+                return PyBool.TRUE;
             }
         });
 
@@ -15,7 +15,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 
-public class PyListIterator extends PyPrimitiveTypeAdapter {
+public class PyListIterator extends PyPrimitiveTypeAdapter implements PyIterator {
 
     private PyList lst;
     private int index = 0;
@@ -23,10 +23,18 @@ public class PyListIterator extends PyPrimitiveTypeAdapter {
     public PyListIterator(PyList lst) {
         super("list_iterator", PyType.PyTypeId.PyListIteratorType);
         this.lst = lst;
-        initMethods(funs());
 
     }
 
+    @Override
+    public PyObject nextOrNull() {
+        if (this.index >= this.lst.len()) {
+            return null;
+        }
+
+        return this.lst.list().get(this.index++);
+    }
+
     public static HashMap<String, PyCallable> funs() {
         HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
 
@@ -37,7 +45,12 @@ public class PyListIterator extends PyPrimitiveTypeAdapter {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size() + ".");
                 }
 
-                PyListIterator self = (PyListIterator) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyListIterator self = (PyListIterator) selfArg;
 
                 return self;
             }
@@ -50,13 +63,19 @@ public class PyListIterator extends PyPrimitiveTypeAdapter {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size() + ".");
                 }
 
-                PyListIterator self = (PyListIterator) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyListIterator self = (PyListIterator) selfArg;
+                PyObject item = self.nextOrNull();
 
-                if (self.index >= self.lst.len()) {
+                if (item == null) {
                     throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION, "stop it");
                 }
 
-                return self.lst.list().get(self.index++);
+                return item;
             }
         });
 
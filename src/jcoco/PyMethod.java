@@ -29,6 +29,14 @@ public class PyMethod extends PyCallableAdapter {
         this.funName = funName;
     }
     
+    public PyObject getSelf() {
+        return this.self;
+    }
+    
+    public PyCallable getFun() {
+        return this.fun;
+    }
+    
     @Override
     public PyType getType() {
         return JCoCo.PyTypes.get(PyTypeId.PyMethodType);
@@ -52,4 +60,21 @@ public class PyMethod extends PyCallableAdapter {
         
     }
     
+    // The callN methods of a method pass self as the first argument of fun 
+    // instead of adding it to an argument list.
+    @Override
+    public PyObject call0(PyCallStack callStack) {
+        return fun.call1(callStack, this.self);
+    }
+    
+    @Override
+    public PyObject call1(PyCallStack callStack, PyObject arg0) {
+        return fun.call2(callStack, this.self, arg0);
+    }
+    
+    @Override
+    public PyObject call2(PyCallStack callStack, PyObject arg0, PyObject arg1) {
+        return fun.call3(callStack, this.self, arg0, arg1);
+    }
+    
 }
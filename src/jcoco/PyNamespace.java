@@ -0,0 +1,69 @@
+/**
+ * PyNamespace.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * A PyNamespace is a map from names to objects, like the globals, that has a
+ * version. The version changes every time a name is stored in or removed from
+ * the map. Each version is taken from a single counter, so no two namespaces
+ * ever have the same version. This lets an instruction remember what it looked
+ * up in a namespace along with the version of the namespace at the time (see
+ * LOAD_GLOBAL in PyFrame). The object it remembered is still the right one if
+ * the namespace has the same version when the instruction is executed again.
+ *
+ * Only put, putAll, remove, and clear are used to change namespaces in JCoCo,
+ * so those are the methods that change the version.
+ */
+package jcoco;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class PyNamespace extends HashMap<String, PyObject> {
+
+    private static final long serialVersionUID = 1L;
+    private static long lastVersion = 0;
+    private long version;
+
+    public PyNamespace() {
+        super();
+        this.version = ++lastVersion;
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    private void changed() {
+        this.version = ++lastVersion;
+    }
+
+    @Override
+    public PyObject put(String key, PyObject value) {
+        this.changed();
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends PyObject> m) {
+        this.changed();
+        super.putAll(m);
+    }
+
+    @Override
+    public PyObject remove(Object key) {
+        this.changed();
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        this.changed();
+        super.clear();
+    }
+}
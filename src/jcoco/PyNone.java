@@ -24,9 +24,11 @@ import jcoco.PyType.PyTypeId;
  */
 public class PyNone extends PyPrimitiveTypeAdapter {
 
-    public PyNone() {
+    // None is a singleton.
+    public static final PyNone NONE = new PyNone();
+
+    private PyNone() {
         super("None", PyTypeId.PyNoneType);
-        initMethods(funs());
     }
 
     @Override
@@ -40,7 +42,7 @@ public class PyNone extends PyPrimitiveTypeAdapter {
         funs.put("__hash__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                return new PyInt(0);
+                return PyInt.valueOf(0);
             }
         });
 
@@ -52,14 +54,17 @@ public class PyNone extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
 
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
                 switch (arg.getType().typeId()) {
                     case PyNoneType:
-                        return new PyBool(true);
+                        return PyBool.TRUE;
 
                     default:
-                        return new PyBool(false);
+                        return PyBool.FALSE;
                 }
             }
         });
@@ -72,14 +77,17 @@ public class PyNone extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
 
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
                 switch (arg.getType().typeId()) {
                     case PyNoneType:
-                        return new PyBool(false);
+                        return PyBool.FALSE;
 
                     default:
-                        return new PyBool(true);
+                        return PyBool.TRUE;
                 }
             }
         });
@@ -92,8 +100,13 @@ public class PyNone extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
                 throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                        "TypeError: unorderable types: NoneType() < " + args.get(0).getType().str() + "()");
+                        "TypeError: unorderable types: NoneType() < " + arg1.getType().str() + "()");
             }
         });
 
@@ -105,8 +118,11 @@ public class PyNone extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
 
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
                 throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                         "TypeError: unorderable types: NoneType() <= " + arg.getType().str() + "()");
             }
@@ -119,8 +135,11 @@ public class PyNone extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
 
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
                 throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                         "TypeError: unorderable types: NoneType() > " + arg.getType().str() + "()");
             }
@@ -133,8 +152,11 @@ public class PyNone extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyObject arg = args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
 
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg) {
                 throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                         "TypeError: unorderable types: NoneType() >= " + arg.getType().str() + "()");
             }
@@ -148,6 +170,11 @@ public class PyNone extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
                 throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                         "TypeError: float() argument must be a string or a number, not 'NoneType'");
             }
@@ -161,6 +188,11 @@ public class PyNone extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 arguments, got " + args.size());
                 }
 
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
                 throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                         "TypeError: int() argument must be a string or a number, not 'NoneType'");
             }
@@ -174,7 +206,12 @@ public class PyNone extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                return new PyBool(false);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                return PyBool.FALSE;
             }
         });
 
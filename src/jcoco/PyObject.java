@@ -26,4 +26,40 @@ public interface PyObject {
     public void set(String key, PyObject value) ;
     public PyObject get(String key) ;
     public PyObject callMethod(PyCallStack callStack, String name, ArrayList<PyObject> args) ;
+    
+    // These call a method with no arguments or with one argument without the
+    // caller having to build an argument list. PyObjectAdapter overrides them
+    // to call the method through call1 and call2 of PyCallable.
+    public default PyObject callMethod(PyCallStack callStack, String name) {
+        return this.callMethod(callStack, name, new ArrayList<PyObject>());
+    }
+    
+    public default PyObject callMethod(PyCallStack callStack, String name, PyObject arg) {
+        ArrayList<PyObject> args = new ArrayList<PyObject>(1);
+        args.add(arg);
+        return this.callMethod(callStack, name, args);
+    }
+    
+    // These call one of the special methods that have a slot number in PyType
+    // (e.g. PyType.SLOT_ADD for __add__). By default the method is called by 
+    // name. PyObjectAdapter overrides them to find the method in the slots of
+    // the object's type without looking up its name.
+    public default PyObject callSlot(PyCallStack callStack, int slot) {
+        return this.callMethod(callStack, PyType.slotName(slot));
+    }
+    
+    public default PyObject callSlot(PyCallStack callStack, int slot, PyObject arg) {
+        return this.callMethod(callStack, PyType.slotName(slot), arg);
+    }
+    
+    public default PyObject callSlot(PyCallStack callStack, int slot, PyObject arg1, PyObject arg2) {
+        ArrayList<PyObject> args = new ArrayList<PyObject>(3);
+        args.add(arg2);
+        args.add(arg1);
+        return this.callMethod(callStack, PyType.slotName(slot), args);
+    }
+    
+    public default PyObject callSlot(PyCallStack callStack, int slot, ArrayList<PyObject> args) {
+        return this.callMethod(callStack, PyType.slotName(slot), args);
+    }
 }
\ No newline at end of file
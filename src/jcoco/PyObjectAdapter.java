@@ -18,12 +18,9 @@ import jcoco.PyException.ExceptionType;
 public class PyObjectAdapter implements PyObject {
 
     // These are the attributes of the object, whatever type of object this is.
-    protected HashMap<String, PyObject> dict = new HashMap<String, PyObject>();
-
-    // The attrs are the attributes to be set in each instance of a class. See
-    // PyClass' initInstance for where PyMethod objects are installed in each
-    // instance. KDL
-    protected HashMap<String, PyObject> attrs = new HashMap<String, PyObject>();
+    // Most objects never have any, so the dict is created by the first set.
+    // Instances of classes keep theirs in slots instead (see PyObjectInst).
+    protected HashMap<String, PyObject> dict = null;
     protected String name;
     protected PyType.PyTypeId type;
 
@@ -37,77 +34,124 @@ public class PyObjectAdapter implements PyObject {
 
         name = "PyObject()";
         type = PyType.PyTypeId.PyClassType;
-        PyObjectAdapter self = this;
-        this.dict.put("__str__", new PyBaseCallable() {
-            @Override
-            public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                if (args.size() != 0) {
-                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
-                            "TypeError: expected 0 argument, got " + args.size());
-                }
-
-                return new PyStr(self.str());
-            }
-        });
-
-        this.dict.put("__hash__", new PyBaseCallable() {
-            @Override
-            public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                        "TypeError: unhashable type: '" + self.getType().str() + "'");
-            }
-        });
-
-        this.dict.put("__repr__", new PyBaseCallable() {
-            @Override
-            public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                if (args.size() != 0) {
-                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
-                            "TypeError: expected 0 argument, got " + args.size());
-                }
-
-                return self.callMethod(callStack, "__str__", args);
-            }
-        });
-
-        this.dict.put("__iter__", new PyBaseCallable() {
-            @Override
-            public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                if (args.size() != 0) {
-                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
-                            "TypeError: expected 0 argument, got " + args.size());
-                }
-
-                throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
-                        "TypeError: '" + self.getType().str() + "' object is not iterable");
-            }
-        });
-
-        this.dict.put("__type__", new PyBaseCallable() {
-            @Override
-            public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-                if (args.size() != 0) {
-                    throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION,
-                            "TypeError: expected 0 argument, got " + args.size());
-                }
-
-                return (PyObject) self.getType();
-            }
-        });
     }
 
+    // Methods are looked up first in the object's own dict and then in the 
+    // method table of its type (see PyType.getInstanceFun). The methods of a 
+    // type are shared by all its instances, so the object is passed to them 
+    // explicitly as the last argument (i.e. self).
     @Override
     public PyObject callMethod(PyCallStack callStack, String name, ArrayList<PyObject> args) {
-        PyCallable mbr = null;
+        PyObject mbr = this.ownAttr(name);
+
+        if (mbr != null) {
+            return ((PyCallable) mbr).__call__(callStack, args);
+        }
+
+        PyCallable fun = this.getType().getInstanceFun(name);
+
+        if (fun != null) {
+            args.add(this);
+            PyObject result = fun.__call__(callStack, args);
+            //take self back out of args, as PyMethod does.
+            args.remove(args.size() - 1);
+            return result;
+        }
+
+        throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "TypeError: '" + this.getType().str() + "' object has no attribute '" + name + "'");
+    }
+
+    @Override
+    public PyObject callMethod(PyCallStack callStack, String name) {
+        PyObject mbr = this.ownAttr(name);
+
+        if (mbr != null) {
+            return ((PyCallable) mbr).call0(callStack);
+        }
+
+        PyCallable fun = this.getType().getInstanceFun(name);
 
-        if (this.dict.containsKey(name)) {
-            mbr = (PyCallable) this.dict.get(name);
-            return mbr.__call__(callStack, args);
+        if (fun != null) {
+            return fun.call1(callStack, this);
         }
 
         throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "TypeError: '" + this.getType().str() + "' object has no attribute '" + name + "'");
     }
 
+    @Override
+    public PyObject callMethod(PyCallStack callStack, String name, PyObject arg) {
+        PyObject mbr = this.ownAttr(name);
+
+        if (mbr != null) {
+            return ((PyCallable) mbr).call1(callStack, arg);
+        }
+
+        PyCallable fun = this.getType().getInstanceFun(name);
+
+        if (fun != null) {
+            return fun.call2(callStack, this, arg);
+        }
+
+        throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "TypeError: '" + this.getType().str() + "' object has no attribute '" + name + "'");
+    }
+
+    // Returns true if the object may have an attribute of its own with the name
+    // of a special method. Its special methods are then called by name, so the
+    // attribute is found first as callMethod does.
+    protected boolean hasSpecialAttrs() {
+        return this.dict != null;
+    }
+
+    @Override
+    public PyObject callSlot(PyCallStack callStack, int slot) {
+        PyCallable fun = this.hasSpecialAttrs() ? null : this.getType().getSlot(slot);
+
+        if (fun != null) {
+            return fun.call1(callStack, this);
+        }
+
+        return this.callMethod(callStack, PyType.slotName(slot));
+    }
+
+    @Override
+    public PyObject callSlot(PyCallStack callStack, int slot, PyObject arg) {
+        PyCallable fun = this.hasSpecialAttrs() ? null : this.getType().getSlot(slot);
+
+        if (fun != null) {
+            return fun.call2(callStack, this, arg);
+        }
+
+        return this.callMethod(callStack, PyType.slotName(slot), arg);
+    }
+
+    @Override
+    public PyObject callSlot(PyCallStack callStack, int slot, PyObject arg1, PyObject arg2) {
+        PyCallable fun = this.hasSpecialAttrs() ? null : this.getType().getSlot(slot);
+
+        if (fun != null) {
+            return fun.call3(callStack, this, arg1, arg2);
+        }
+
+        ArrayList<PyObject> args = new ArrayList<PyObject>(3);
+        args.add(arg2);
+        args.add(arg1);
+        return this.callMethod(callStack, PyType.slotName(slot), args);
+    }
+
+    @Override
+    public PyObject callSlot(PyCallStack callStack, int slot, ArrayList<PyObject> args) {
+        PyCallable fun = this.hasSpecialAttrs() ? null : this.getType().getSlot(slot);
+
+        if (fun != null) {
+            args.add(this);
+            PyObject result = fun.__call__(callStack, args);
+            args.remove(args.size() - 1);
+            return result;
+        }
+
+        return this.callMethod(callStack, PyType.slotName(slot), args);
+    }
+
     @Override
     public PyType getType() {
         return JCoCo.PyTypes.get(type);
@@ -125,23 +169,43 @@ public class PyObjectAdapter implements PyObject {
         // usage of the debugger. Exceptions will still have the full traceback
         // but if the debugger is used, the call stack will stop at this call
         // for calls to "__repr__" in this case.
-        PyStr s = (PyStr) callMethod(new PyCallStack(), "__repr__", new ArrayList<PyObject>());
+        PyStr s = (PyStr) callSlot(new PyCallStack(), PyType.SLOT_REPR);
         return s.str();
     }
 
+    // Returns the attribute of this object itself (as opposed to a method of
+    // its type) with the given name or null if there is none.
+    protected PyObject ownAttr(String key) {
+        if (this.dict == null) {
+            return null;
+        }
+
+        return this.dict.get(key);
+    }
+
     @Override
     public void set(String key, PyObject value) {
+        if (this.dict == null) {
+            this.dict = new HashMap<String, PyObject>();
+        }
+
         this.dict.put(key, value);
     }
 
     @Override
     public PyObject get(String key) {
-        if (this.attrs.containsKey(key)) {
-            return this.attrs.get(key);
+        PyObject value = this.ownAttr(key);
+
+        if (value != null) {
+            return value;
         }
 
-        if (this.dict.containsKey(key)) {
-            return this.dict.get(key);
+        // A method of the type is bound to this object when it is retrieved
+        // (e.g. lst.append) so that it can be called later.
+        PyCallable fun = this.getType().getInstanceFun(key);
+
+        if (fun != null) {
+            return new PyMethod(key, this, fun);
         }
 
         throw new PyException(ExceptionType.PYATTRERROR,
@@ -153,41 +217,30 @@ public class PyObjectAdapter implements PyObject {
     // added to HashMaps if the __hash__ and the __eq__ are both implemented.
     @Override
     public int hashCode() {
-        ArrayList<PyObject> args = new ArrayList<PyObject>();
-
         // Creating a new call stack here is a trade-off. This simplifies
         // the interface to the str() method, for instance. It only affects
         // usage of the debugger. Exceptions will still have the full traceback
         // but if the debugger is used, the call stack will stop at this call
         // for calls to "__hash__" in this case.
-        PyInt val = (PyInt) this.callMethod(new PyCallStack(), "__hash__", args);
+        PyInt val = (PyInt) this.callSlot(new PyCallStack(), PyType.SLOT_HASH);
 
         return val.getVal();
     }
 
     @Override
     public boolean equals(Object o) {
-        ArrayList<PyObject> args = new ArrayList<PyObject>();
-
         PyObject other = (PyObject) o;
 
-        args.add(other);
         // Creating a new call stack here is a trade-off. This simplifies
         // the interface to the str() method, for instance. It only affects
         // usage of the debugger. Exceptions will still have the full traceback
         // but if the debugger is used, the call stack will stop at this call
         // for calls to "__eq__" in this case.
-        PyBool bool = (PyBool) this.callMethod(new PyCallStack(), "__eq__", args);
+        PyBool bool = (PyBool) this.callSlot(new PyCallStack(), PyType.SLOT_EQ, other);
 
         return bool.getVal();
     }
 
-    public void initMethods(HashMap<String, PyCallable> funs) {
-        for (String key : funs.keySet()) {
-            this.dict.put(key, new PyMethod(key, this, funs.get(key)));
-        }
-    }
-
     public static ArrayList<PyObject> newargs() {
         return new ArrayList<PyObject>();
     }
@@ -9,15 +9,105 @@
  *
  * Description: This class represents all object instances of user-defined
  * classes. 
+ * 
+ * The attributes of an instance are kept in the slots array and its shape 
+ * gives the index of each of them (see PyShape). Instances of a class that
+ * are given the same attributes in the same order have the same shape. An
+ * instance whose shape cannot be extended keeps its attributes in the dict 
+ * instead, and its shape is then null.
  */
 package jcoco;
 
+import java.util.HashMap;
+
 public class PyObjectInst extends PyObjectAdapter {
+    private static final PyObject[] NO_SLOTS = new PyObject[0];
+    
     private PyClass classInst = null;
+    private PyShape shape;
+    private PyObject[] slots;
     
     public PyObjectInst(PyClass classInst) {
         super();
         this.classInst = classInst;
+        this.shape = classInst.getInstanceShape();
+        this.slots = NO_SLOTS;
+    }
+    
+    public PyShape getShape() {
+        return this.shape;
+    }
+    
+    public PyObject getSlot(int index) {
+        return this.slots[index];
+    }
+    
+    public void setSlot(int index, PyObject value) {
+        this.slots[index] = value;
+    }
+    
+    @Override
+    protected PyObject ownAttr(String key) {
+        if (this.shape == null) {
+            return super.ownAttr(key);
+        }
+        
+        int index = this.shape.indexOf(key);
+        
+        if (index < 0) {
+            return null;
+        }
+        
+        return this.slots[index];
+    }
+    
+    @Override
+    protected boolean hasSpecialAttrs() {
+        return this.shape == null || this.shape.hasSpecialNames();
+    }
+    
+    @Override
+    public void set(String key, PyObject value) {
+        if (this.shape == null) {
+            super.set(key, value);
+            return;
+        }
+        
+        int index = this.shape.indexOf(key);
+        
+        if (index >= 0) {
+            this.slots[index] = value;
+            return;
+        }
+        
+        PyShape next = this.shape.withAttribute(key);
+        
+        if (next == null) {
+            // Move the attributes to the dict for good.
+            this.dict = new HashMap<String, PyObject>();
+            for (int i = 0; i < this.shape.size(); i++) {
+                this.dict.put(this.shape.nameAt(i), this.slots[i]);
+            }
+            this.shape = null;
+            this.slots = null;
+            super.set(key, value);
+            return;
+        }
+        
+        this.extend(next, value);
+    }
+    
+    // Moves this object to the shape next, which must be its shape with one 
+    // attribute added, and stores value in the new attribute.
+    public void extend(PyShape next, PyObject value) {
+        if (this.slots.length < next.size()) {
+            PyObject[] newSlots = new PyObject[Math.max(4, 2 * this.slots.length)];
+            System.arraycopy(this.slots, 0, newSlots, 0, this.slots.length);
+            this.slots = newSlots;
+        }
+        
+        this.shape = next;
+        this.slots[next.size() - 1] = value;
     }
     
     @Override
@@ -0,0 +1,366 @@
+/**
+ * PyOptimizer.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The PyOptimizer is a peephole optimizer for the instructions of a function.
+ * PyParser runs it once the labels of the function have been resolved to
+ * instruction indexes. It makes three passes over the instructions, and
+ * then, once PyParser has packed them into a code stream, a fourth pass over
+ * the code stream.
+ *
+ * 1. Operations on constants are folded. LOAD_CONSTs followed by a BUILD_TUPLE
+ *    of them, or by an add, subtract, multiply, floor divide or modulo of two
+ *    ints or floats or an add of two strs, are replaced by one LOAD_CONST of
+ *    the result, which is added to the constants of the function. The result
+ *    is computed the same way PyFrame computes it. An operation that would 
+ *    raise an exception (e.g. a division by zero or an int overflow) is left
+ *    to raise it when it runs, and so is a str longer than MAX_FOLDED_LENGTH.
+ * 2. A jump to an unconditional jump is changed to jump directly to where the
+ *    chain of jumps ends.
+ * 3. Instructions that no path from the first instruction reaches are removed,
+ *    along with NOPs, and the targets of the remaining instructions are 
+ *    renumbered.
+ * 4. Common sequences of instructions are replaced in the code stream by
+ *    superinstructions that do the work of the whole sequence in one 
+ *    dispatch. The instructions themselves are not changed, so tracebacks
+ *    and the debugger list the opcodes of the casm file. A superinstruction
+ *    takes the place of the first instruction of its sequence only. The rest
+ *    of the sequence is left as it was, so it still runs when it is jumped
+ *    into, and the superinstruction reads its other operands from there.
+ *    When its operands are not what it expects, a superinstruction runs the
+ *    first instruction of the sequence instead, which then continues with the
+ *    rest of it.
+ *
+ * The optimizer is not run with the -n or -p options. Running with -v shows
+ * the instructions after they have been optimized, with the superinstructions
+ * in place.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+
+public class PyOptimizer {
+
+    private static final int MAX_FOLDED_LENGTH = 4096;
+
+    public static void optimize(ArrayList<PyByteCode> instructions, ArrayList<PyObject> constants, PyConstantPool pool) {
+        foldConstants(instructions, constants, pool);
+        threadJumps(instructions);
+        removeUnused(instructions);
+    }
+
+    private static int opcodeAt(ArrayList<PyByteCode> instructions, int index) {
+        if (index < 0 || index >= instructions.size()) {
+            return -1;
+        }
+
+        return instructions.get(index).getOpCode().code();
+    }
+
+    private static int opcodeAt(int[] stream, int index) {
+        if (index < 0 || 2 * index >= stream.length) {
+            return -1;
+        }
+
+        return stream[2 * index];
+    }
+
+    // Returns true if the operand of the instruction is the index of another
+    // instruction. The target of a SETUP_LOOP is where BREAK_LOOP goes.
+    private static boolean hasTarget(int opcode) {
+        return PyByteCode.hasJump(opcode) || opcode == PyByteCode.SETUP_LOOP || opcode == PyByteCode.CONTINUE_LOOP;
+    }
+
+    private static boolean[] findTargets(ArrayList<PyByteCode> instructions) {
+        boolean[] isTarget = new boolean[instructions.size() + 1];
+
+        for (PyByteCode inst : instructions) {
+            int operand = inst.getOperand();
+
+            if (hasTarget(inst.getOpCode().code()) && operand >= 0 && operand < isTarget.length) {
+                isTarget[operand] = true;
+            }
+        }
+
+        return isTarget;
+    }
+
+    private static boolean isUnconditionalJump(int opcode) {
+        return opcode == PyByteCode.JUMP_FORWARD || opcode == PyByteCode.JUMP_ABSOLUTE;
+    }
+
+    // Returns the result of an instruction applied to the values of the
+    // LOAD_CONSTs before it, or null if it is not folded.
+    private static PyObject fold(int opcode, PyObject[] values) {
+        if (opcode == PyByteCode.BUILD_TUPLE) {
+            ArrayList<PyObject> elements = new ArrayList<PyObject>();
+
+            for (PyObject value : values) {
+                elements.add(value);
+            }
+
+            return new PyTuple(elements);
+        }
+
+        PyObject u = values[0];
+        PyObject v = values[1];
+
+        try {
+            if (u instanceof PyInt && v instanceof PyInt) {
+                int a = ((PyInt) u).getVal();
+                int b = ((PyInt) v).getVal();
+
+                switch (opcode) {
+                    case PyByteCode.BINARY_ADD:
+                        return PyInt.valueOf(Math.addExact(a, b));
+                    case PyByteCode.BINARY_SUBTRACT:
+                        return PyInt.valueOf(Math.subtractExact(a, b));
+                    case PyByteCode.BINARY_MULTIPLY:
+                        return PyInt.valueOf(Math.multiplyExact(a, b));
+                    case PyByteCode.BINARY_FLOOR_DIVIDE:
+                        return b == 0 ? null : PyInt.valueOf(a / b);
+                    case PyByteCode.BINARY_MODULO:
+                        return b == 0 ? null : PyInt.valueOf(a % b);
+                    default:
+                        return null;
+                }
+            }
+        } catch (ArithmeticException ex) {
+            return null;
+        }
+
+        if ((u instanceof PyInt || u instanceof PyFloat) && (v instanceof PyInt || v instanceof PyFloat)) {
+            double a = u instanceof PyInt ? ((PyInt) u).getVal() : ((PyFloat) u).getVal();
+            double b = v instanceof PyInt ? ((PyInt) v).getVal() : ((PyFloat) v).getVal();
+
+            switch (opcode) {
+                case PyByteCode.BINARY_ADD:
+                    return new PyFloat(a + b);
+                case PyByteCode.BINARY_SUBTRACT:
+                    return new PyFloat(a - b);
+                case PyByteCode.BINARY_MULTIPLY:
+                    return new PyFloat(a * b);
+                default:
+                    return null;
+            }
+        }
+
+        if (u instanceof PyStr && v instanceof PyStr && opcode == PyByteCode.BINARY_ADD
+                && u.str().length() + v.str().length() <= MAX_FOLDED_LENGTH) {
+            return new PyStr(u.str() + v.str());
+        }
+
+        return null;
+    }
+
+    // Folds operations on constants. A fold leaves the LOAD_CONST of the 
+    // result where the operation was and NOPs where its operands were loaded,
+    // so the indexes of the instructions do not change until the NOPs are
+    // removed. The result may be the operand of a later fold.
+    private static void foldConstants(ArrayList<PyByteCode> instructions, ArrayList<PyObject> constants, PyConstantPool pool) {
+        boolean[] isTarget = findTargets(instructions);
+        //run holds the indexes of the LOAD_CONSTs whose values are on top of
+        //the operand stack, topmost last, with only NOPs between them.
+        ArrayList<Integer> run = new ArrayList<Integer>();
+
+        for (int i = 0; i < instructions.size(); i++) {
+            PyByteCode inst = instructions.get(i);
+            int opcode = inst.getOpCode().code();
+            int operand = inst.getOperand();
+
+            //Execution may arrive here with other values on the stack.
+            if (isTarget[i]) {
+                run.clear();
+            }
+
+            if (opcode == PyByteCode.NOP) {
+                continue;
+            }
+
+            if (opcode == PyByteCode.LOAD_CONST && operand >= 0 && operand < constants.size()) {
+                run.add(i);
+                continue;
+            }
+
+            int count = -1;
+
+            switch (opcode) {
+                case PyByteCode.BUILD_TUPLE:
+                    count = operand;
+                    break;
+                case PyByteCode.BINARY_ADD:
+                case PyByteCode.BINARY_SUBTRACT:
+                case PyByteCode.BINARY_MULTIPLY:
+                case PyByteCode.BINARY_FLOOR_DIVIDE:
+                case PyByteCode.BINARY_MODULO:
+                    count = 2;
+                    break;
+            }
+
+            PyObject result = null;
+
+            if (count >= 0 && count <= run.size()) {
+                PyObject[] values = new PyObject[count];
+
+                for (int k = 0; k < count; k++) {
+                    values[k] = constants.get(instructions.get(run.get(run.size() - count + k)).getOperand());
+                }
+
+                result = fold(opcode, values);
+            }
+
+            if (result == null) {
+                run.clear();
+                continue;
+            }
+
+            for (int k = 0; k < count; k++) {
+                instructions.set(run.remove(run.size() - 1), new PyByteCode("NOP"));
+            }
+
+            int index = PyConstantPool.indexIn(constants, pool.intern(result));
+            instructions.set(i, new PyByteCode("LOAD_CONST", index));
+            run.add(i);
+        }
+    }
+
+    private static void threadJumps(ArrayList<PyByteCode> instructions) {
+        for (int i = 0; i < instructions.size(); i++) {
+            PyByteCode inst = instructions.get(i);
+            int opcode = inst.getOpCode().code();
+
+            switch (opcode) {
+                case PyByteCode.JUMP_FORWARD:
+                case PyByteCode.JUMP_ABSOLUTE:
+                case PyByteCode.POP_JUMP_IF_TRUE:
+                case PyByteCode.POP_JUMP_IF_FALSE:
+                case PyByteCode.JUMP_IF_TRUE_OR_POP:
+                case PyByteCode.JUMP_IF_FALSE_OR_POP:
+                    break;
+                default:
+                    continue;
+            }
+
+            int target = inst.getOperand();
+
+            //A chain can be no longer than the function, so a longer one is
+            //a loop of jumps that is left alone.
+            for (int steps = 0; steps < instructions.size()
+                    && isUnconditionalJump(opcodeAt(instructions, target)); steps++) {
+                target = instructions.get(target).getOperand();
+            }
+
+            if (target != inst.getOperand() && !isUnconditionalJump(opcodeAt(instructions, target))) {
+                instructions.set(i, new PyByteCode(inst.getOpCodeName(), target));
+            }
+        }
+    }
+
+    private static void removeUnused(ArrayList<PyByteCode> instructions) {
+        int count = instructions.size();
+        boolean[] reached = new boolean[count];
+        int[] worklist = new int[count];
+        int pending = 0;
+
+        if (count > 0) {
+            reached[0] = true;
+            worklist[pending++] = 0;
+        }
+
+        while (pending > 0) {
+            int pc = worklist[--pending];
+            PyByteCode inst = instructions.get(pc);
+            int opcode = inst.getOpCode().code();
+            int operand = inst.getOperand();
+
+            if (!PyByteCode.endsBlock(opcode) && pc + 1 < count && !reached[pc + 1]) {
+                reached[pc + 1] = true;
+                worklist[pending++] = pc + 1;
+            }
+
+            if (hasTarget(opcode) && operand >= 0 && operand < count && !reached[operand]) {
+                reached[operand] = true;
+                worklist[pending++] = operand;
+            }
+        }
+
+        //A NOP does nothing, so it is removed as if it were not reached. A 
+        //jump to it goes to the instruction after it instead.
+        for (int i = 0; i < count; i++) {
+            if (instructions.get(i).getOpCode().code() == PyByteCode.NOP) {
+                reached[i] = false;
+            }
+        }
+
+        //newIndex[i] is where instruction i is after the unused ones are
+        //removed, or where the next kept one is if i is removed. A target 
+        //just past the last instruction stays that way.
+        int[] newIndex = new int[count + 1];
+        int kept = 0;
+
+        for (int i = 0; i < count; i++) {
+            newIndex[i] = kept;
+
+            if (reached[i]) {
+                kept++;
+            }
+        }
+
+        newIndex[count] = kept;
+
+        if (kept == count) {
+            return;
+        }
+
+        ArrayList<PyByteCode> result = new ArrayList<PyByteCode>(kept);
+
+        for (int i = 0; i < count; i++) {
+            if (!reached[i]) {
+                continue;
+            }
+
+            PyByteCode inst = instructions.get(i);
+            int operand = inst.getOperand();
+
+            if (hasTarget(inst.getOpCode().code()) && operand >= 0 && operand <= count) {
+                inst = new PyByteCode(inst.getOpCodeName(), newIndex[operand]);
+            }
+
+            result.add(inst);
+        }
+
+        instructions.clear();
+        instructions.addAll(result);
+    }
+
+    // Puts superinstructions in the code stream of a function (see PyCode) in
+    // place of the first instruction of each sequence they do the work of.
+    // The instructions the function was loaded with are not changed.
+    public static void fuseSuperinstructions(int[] stream) {
+        int count = stream.length / 2;
+        int i = 0;
+
+        while (i < count) {
+            if (opcodeAt(stream, i) == PyByteCode.LOAD_FAST
+                    && opcodeAt(stream, i + 1) == PyByteCode.LOAD_CONST
+                    && (opcodeAt(stream, i + 2) == PyByteCode.BINARY_ADD
+                        || opcodeAt(stream, i + 2) == PyByteCode.INPLACE_ADD)
+                    && opcodeAt(stream, i + 3) == PyByteCode.STORE_FAST) {
+                stream[2 * i] = PyByteCode.ADD_CONST_FAST;
+                i += 4;
+            } else if (opcodeAt(stream, i) == PyByteCode.LOAD_FAST
+                    && opcodeAt(stream, i + 1) == PyByteCode.LOAD_FAST) {
+                stream[2 * i] = PyByteCode.LOAD_FAST_LOAD_FAST;
+                i += 2;
+            } else {
+                i++;
+            }
+        }
+    }
+}
@@ -70,6 +70,7 @@ public class PyParser {
     private int index;
     private HashMap<String, Integer> target = new HashMap<String, Integer>();
     private HashMap<String, PyObject> globals = null;
+    private final PyConstantPool constantPool = new PyConstantPool();
 
     /**
      * Constructor for PyParser class.
@@ -108,7 +109,7 @@ public class PyParser {
             System.err.println("              A Parse Exception Occurred");
             System.err.println("*********************************************************");
             System.err.println("The exception occured at line " + tok.getLine());
-            System.err.println("The exception was: " + e.getMessage());
+            System.err.println("The exception was: " + e.str());
             System.exit(0);
         }
 
@@ -294,8 +295,35 @@ public class PyParser {
 
         ArrayList<PyByteCode> instructions = BodyPart();
 
-        return new PyCode(funName.getLex(), nestedClassFunctionList, constants,
+        //The instructions are verified as they were written, so the numbers
+        //of the instructions in any error are their positions in the file.
+        PyVerifier.verify(funName.getLex(), instructions, constants.size(), locals.size(),
+                cellvars.size() + freevars.size(), globals.size());
+
+        //A program with a BREAK_POINT may be stepped through in the debugger,
+        //which compiled code cannot do, so none of its functions are compiled.
+        for (PyByteCode inst : instructions) {
+            if (inst.getOpCode().code() == PyByteCode.BREAK_POINT) {
+                JCoCo.jit = false;
+            }
+        }
+
+        if (JCoCo.optimize) {
+            rewriteMethodCalls(instructions);
+
+            if (JCoCo.peephole) {
+                PyOptimizer.optimize(instructions, constants, this.constantPool);
+            }
+        }
+
+        PyCode code = new PyCode(funName.getLex(), nestedClassFunctionList, constants,
                 locals, freevars, cellvars, globals, instructions, numArgs);
+
+        if (JCoCo.optimize && JCoCo.peephole) {
+            PyOptimizer.fuseSuperinstructions(code.getCodeStream());
+        }
+
+        return code;
     }
 
     private ArrayList<PyObject> ConstPart(ArrayList<PyObject> nestedClassFunctionList) {
@@ -321,6 +349,12 @@ public class PyParser {
 
     private ArrayList<PyObject> ValueList(ArrayList<PyObject> constants, ArrayList<PyObject> nestedClassFunctionList) {
         PyObject value = Value(nestedClassFunctionList);
+
+        //Functions that use the same literal share one object for it.
+        if (JCoCo.optimize) {
+            value = this.constantPool.intern(value);
+        }
+
         constants.add(value);
         constants = ValueRest(constants, nestedClassFunctionList);
         return constants;
@@ -349,7 +383,7 @@ public class PyParser {
             case PYINTEGERTOKEN:
                 try {
                     iVal = Integer.parseInt(tok.getLex());
-                    return new PyInt(iVal);
+                    return PyInt.valueOf(iVal);
                 } catch (NumberFormatException e) {
                     System.err.println(e);
                     System.exit(0);
@@ -369,11 +403,11 @@ public class PyParser {
                 return new PyStr(sVal);
             case PYIDENTIFIERTOKEN:
                 if (tok.getLex().equals("None")) {
-                    return new PyNone();
+                    return PyNone.NONE;
                 } else if (tok.getLex().equals("True")) {
-                    return new PyBool(true);
+                    return PyBool.TRUE;
                 } else if (tok.getLex().equals("False")) {
-                    return new PyBool(false);
+                    return PyBool.FALSE;
                 } else if (tok.getLex().equals("code")) {
                     tok = this.in.getToken();
 
@@ -412,7 +446,13 @@ public class PyParser {
 
                 while (true) {
 
-                    tupleElements.add(Value(nestedClassFunctionList));
+                    PyObject element = Value(nestedClassFunctionList);
+
+                    if (JCoCo.optimize) {
+                        element = this.constantPool.intern(element);
+                    }
+
+                    tupleElements.add(element);
                     
                     tok = this.in.getToken();
                     
@@ -566,6 +606,57 @@ public class PyParser {
         return instructions;
     }
 
+    // A method call obj.f(x) is compiled to a LOAD_ATTR that is followed by
+    // the instructions computing the arguments and a CALL_FUNCTION. This 
+    // rewrites such pairs to LOAD_METHOD and CALL_METHOD. The CALL_FUNCTION
+    // must call the value left by the LOAD_ATTR, so the instructions between
+    // them are followed while they only compute values on top of it. Anything
+    // that may branch, or be branched to, ends the search.
+    private void rewriteMethodCalls(ArrayList<PyByteCode> instructions) {
+        boolean[] isTarget = new boolean[instructions.size() + 1];
+
+        for (PyByteCode inst : instructions) {
+            int opcode = inst.getOpCode().code();
+            int operand = inst.getOperand();
+
+            if ((PyByteCode.hasJump(opcode) || opcode == PyByteCode.SETUP_LOOP || opcode == PyByteCode.CONTINUE_LOOP)
+                    && operand >= 0 && operand < isTarget.length) {
+                isTarget[operand] = true;
+            }
+        }
+
+        for (int i = 0; i < instructions.size(); i++) {
+            PyByteCode attr = instructions.get(i);
+
+            if (attr.getOpCode().code() != PyByteCode.LOAD_ATTR) {
+                continue;
+            }
+
+            //depth is the number of values on the stack above the attribute
+            int depth = 0;
+
+            for (int j = i + 1; j < instructions.size() && !isTarget[j]; j++) {
+                PyByteCode inst = instructions.get(j);
+                int opcode = inst.getOpCode().code();
+                int operand = inst.getOperand();
+
+                if (opcode == PyByteCode.CALL_FUNCTION && operand == depth) {
+                    instructions.set(i, new PyByteCode("LOAD_METHOD", attr.getOperand()));
+                    instructions.set(j, new PyByteCode("CALL_METHOD", operand));
+                    break;
+                }
+
+                int pops = PyByteCode.stackPops(opcode, operand);
+
+                if (pops < 0 || pops > depth) {
+                    break;
+                }
+
+                depth += PyByteCode.stackEffect(opcode, operand, false);
+            }
+        }
+    }
+
     private ArrayList<PyByteCode> InstructionList(ArrayList<PyByteCode> instructions) {
         PyToken tok = this.in.getToken();
         this.in.putBackToken();
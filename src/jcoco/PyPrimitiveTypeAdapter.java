@@ -8,12 +8,12 @@
  * KIND.
  *
  * Description:
- * The PyPrimitiveTypeAdapter exists because trying to combine this class
- * and PyObjectAdapter will lead to a circular dependency where 
- * PyObjectAdapter will end up creating other PyObjectAdapter 
- * instances (indirectly) when PyObjectAdapters are created through
- * inheritance. So, to break this cycle, classes looking to extend 
- * PyObjectAdapter can instead extend PyPrimitiveTypeAdapter. 
+ * The PyPrimitiveTypeAdapter is the super class of the built-in types like
+ * PyInt and PyStr. The primitiveFuns are the methods every object has unless
+ * its type defines them itself. They are created once and every PyType falls 
+ * back on them when looking up a method (see PyType.getInstanceFun). The 
+ * methods of each primitive type are stored once in its PyType (see the 
+ * initTypes method in JCoCo.java) rather than in each object.
  */
 package jcoco;
 
@@ -28,7 +28,6 @@ public class PyPrimitiveTypeAdapter extends PyObjectAdapter {
 
     public PyPrimitiveTypeAdapter(String name, PyType.PyTypeId type) {
         super(name, type);
-        initMethods(primitiveFuns());
     }
 
     public static HashMap<String, PyCallable> primitiveFuns() {
@@ -42,8 +41,11 @@ public class PyPrimitiveTypeAdapter extends PyObjectAdapter {
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyPrimitiveTypeAdapter self = (PyPrimitiveTypeAdapter) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
 
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject self) {
                 return new PyStr(self.str());
             }
         });
@@ -55,9 +57,12 @@ public class PyPrimitiveTypeAdapter extends PyObjectAdapter {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
-                
-                PyPrimitiveTypeAdapter self = (PyPrimitiveTypeAdapter) args.get(args.size() - 1);
 
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject self) {
                 throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                         "TypeError: unhashable type: '" + self.getType().str() + "'");
             }
@@ -71,8 +76,11 @@ public class PyPrimitiveTypeAdapter extends PyObjectAdapter {
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyPrimitiveTypeAdapter self = (PyPrimitiveTypeAdapter) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
 
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject self) {
                 return self.callMethod(callStack,"__str__", newargs());
             }
         });
@@ -85,8 +93,11 @@ public class PyPrimitiveTypeAdapter extends PyObjectAdapter {
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyPrimitiveTypeAdapter self = (PyPrimitiveTypeAdapter) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
 
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject self) {
                 throw new PyException(PyException.ExceptionType.PYILLEGALOPERATIONEXCEPTION,
                         "TypeError: '" + self.getType().str() + "' object is not iterable");
             }
@@ -100,8 +111,11 @@ public class PyPrimitiveTypeAdapter extends PyObjectAdapter {
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyPrimitiveTypeAdapter self = (PyPrimitiveTypeAdapter) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
 
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject self) {
                 return (PyObject) self.getType();
             }
         });
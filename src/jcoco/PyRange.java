@@ -20,7 +20,6 @@ public class PyRange extends PyPrimitiveTypeAdapter {
 
     public PyRange(int start, int stop, int increment) {
         super("range", PyType.PyTypeId.PyRangeTypeId);
-        initMethods(funs());
 
         this.start = start;
         this.stop = stop;
@@ -34,18 +33,30 @@ public class PyRange extends PyPrimitiveTypeAdapter {
     }
 
     public PyObject indexOf(int index) throws PyException {
+        PyObject item = this.itemOrNull(index);
+
+        if (item == null) {
+            throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION, "Stop Iteration");
+        }
+
+        return item;
+
+    }
+
+    // Returns the value at index of the range or null if the index is past
+    // the end of the range.
+    public PyObject itemOrNull(int index) {
         int val = start + index * increment;
 
         if (increment > 0 && val >= stop) {
-            throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION, "Stop Iteration");
+            return null;
         }
 
         if (increment < 0 && val <= stop) {
-            throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION, "Stop Iteration");
+            return null;
         }
 
-        return new PyInt(start + increment * index);
-
+        return PyInt.valueOf(val);
     }
 
     public static HashMap<String, PyCallable> funs() {
@@ -54,13 +65,17 @@ public class PyRange extends PyPrimitiveTypeAdapter {
         funs.put("__iter__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyRange self = (PyRange) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyRange self = (PyRange) selfArg;
 
                 return new PyRangeIterator(self);
             }
@@ -69,29 +84,37 @@ public class PyRange extends PyPrimitiveTypeAdapter {
         funs.put("__len__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyRange self = (PyRange) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyRange self = (PyRange) selfArg;
 
-                return new PyInt((self.stop - self.start) / self.increment);
+                return PyInt.valueOf((self.stop - self.start) / self.increment);
             }
         });
 
         funs.put("__getitem__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 2) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 2 argument, got " + args.size());
                 }
 
-                PyRange self = (PyRange) args.get(args.size() - 1);
-                PyInt indexObj = (PyInt) args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyRange self = (PyRange) selfArg;
+                PyInt indexObj = (PyInt) arg1;
                 int index = indexObj.getVal();
 
                 return self.indexOf(index);
@@ -112,7 +135,7 @@ public class PyRange extends PyPrimitiveTypeAdapter {
 
                 int k;
                 for (k = self.start; k < self.stop; k = k + self.increment) {
-                    largs.add(new PyInt(k));
+                    largs.add(PyInt.valueOf(k));
                 }
 
                 return new PyList(largs);
@@ -14,33 +14,41 @@ import java.util.HashMap;
  *
  * Description:
  */
-public class PyRangeIterator extends PyPrimitiveTypeAdapter {
+public class PyRangeIterator extends PyPrimitiveTypeAdapter implements PyIterator {
 
     private PyRange range;
     private int index;
 
     public PyRangeIterator(PyRange range) {
         super("range_iterator",PyType.PyTypeId.PyRangeIteratorType);
-        initMethods(funs());
 
         this.range = range;
         this.index = 0;
 
     }
 
+    @Override
+    public PyObject nextOrNull() {
+        return this.range.itemOrNull(this.index++);
+    }
+
     public static HashMap<String, PyCallable> funs() {
         HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
 
         funs.put("__iter__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyRangeIterator self = (PyRangeIterator) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyRangeIterator self = (PyRangeIterator) selfArg;
 
                 return self;
             }
@@ -49,13 +57,17 @@ public class PyRangeIterator extends PyPrimitiveTypeAdapter {
         funs.put("__next__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyRangeIterator self = (PyRangeIterator) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyRangeIterator self = (PyRangeIterator) selfArg;
 
                 return self.range.indexOf(self.index++);
             }
@@ -0,0 +1,101 @@
+/**
+ * PyShape.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * A PyShape describes the layout of the attributes of an instance of a class
+ * (see PyObjectInst). The instance keeps the values of its attributes in an
+ * array and its shape maps each attribute name to its index in that array.
+ *
+ * Each class has an empty shape for its new instances. When an instance is
+ * given an attribute it does not have yet, it moves to the shape that has that
+ * attribute added at the end. These transitions are remembered, so instances
+ * that are given the same attributes in the same order share the same shapes
+ * and the names are stored once per shape, not once per instance.
+ *
+ * An object whose attributes do not fit this pattern well, because it has too
+ * many of them or because many different attributes are added to objects of
+ * the same shape, would create a lot of shapes. Instead, withAttribute returns
+ * null in that case and the object falls back to keeping its attributes in a
+ * dictionary.
+ */
+package jcoco;
+
+import java.util.HashMap;
+
+public class PyShape {
+
+    private static final int MAX_ATTRIBUTES = 64;
+    private static final int MAX_TRANSITIONS = 16;
+
+    private final HashMap<String, Integer> indexes;
+    private final String[] names;
+    private final HashMap<String, PyShape> transitions = new HashMap<String, PyShape>();
+    private final boolean special;
+
+    public PyShape() {
+        this.indexes = new HashMap<String, Integer>();
+        this.names = new String[0];
+        this.special = false;
+    }
+
+    private PyShape(PyShape parent, String name) {
+        this.indexes = new HashMap<String, Integer>(parent.indexes);
+        this.indexes.put(name, parent.names.length);
+        this.names = new String[parent.names.length + 1];
+        System.arraycopy(parent.names, 0, this.names, 0, parent.names.length);
+        this.names[parent.names.length] = name;
+        this.special = parent.special || (name.startsWith("__") && name.endsWith("__"));
+    }
+
+    // Returns true if objects of this shape have an attribute named like a
+    // special method (e.g. __str__), which would be called instead of the 
+    // method of their class.
+    public boolean hasSpecialNames() {
+        return this.special;
+    }
+
+    // Returns the index of the attribute called name or -1 if objects of this
+    // shape do not have it.
+    public int indexOf(String name) {
+        Integer index = this.indexes.get(name);
+
+        if (index == null) {
+            return -1;
+        }
+
+        return index;
+    }
+
+    public int size() {
+        return this.names.length;
+    }
+
+    public String nameAt(int index) {
+        return this.names[index];
+    }
+
+    // Returns the shape of an object of this shape that is given the new
+    // attribute name, or null if the object should use a dictionary instead.
+    public PyShape withAttribute(String name) {
+        PyShape next = this.transitions.get(name);
+
+        if (next != null) {
+            return next;
+        }
+
+        if (this.names.length >= MAX_ATTRIBUTES || this.transitions.size() >= MAX_TRANSITIONS) {
+            return null;
+        }
+
+        next = new PyShape(this, name);
+        this.transitions.put(name, next);
+
+        return next;
+    }
+}
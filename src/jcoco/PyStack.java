@@ -9,7 +9,8 @@
  *
  * Description:
  * Here we have an example of a generic class. This generic class is used
- * for both the operand stack (in PyFrame) and the block stack.
+ * where a temporary stack of objects is needed, as in PyFunList. PyFrame
+ * keeps its operand and block stacks in arrays instead.
  * The code is written generically so that a stack is a stack of some other
  * type of element. The __PyStackElement defines a linked list of
  * the elements to be put on the stack. The toString method can
@@ -25,7 +25,6 @@ public class PyStr extends PyPrimitiveTypeAdapter {
 
     public PyStr(String sVal) {
         super("str",PyTypeId.PyStrType);
-        initMethods(funs());
         this.val = sVal;
 
     }
@@ -53,13 +52,18 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyStr self = (PyStr) selfArg;
                 PyStr other = null;
                 try {
-                    other = (PyStr) args.get(0);
+                    other = (PyStr) arg1;
 
                 } catch (Exception ex) {
-                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "TypeError:operand'" + args.get(0).str() + " must be string in + expression.");
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "TypeError:operand'" + arg1.str() + " must be string in + expression.");
                 }
 
                 return new PyStr(self.str() + other.str());
@@ -73,9 +77,14 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyStr self = (PyStr) selfArg;
 
-                return new PyInt(self.val.hashCode());
+                return PyInt.valueOf(self.val.hashCode());
             }
         });
 
@@ -86,7 +95,12 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyStr self = (PyStr) selfArg;
                 Double x;
 
                 try {
@@ -104,11 +118,16 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyStr self = (PyStr) selfArg;
                 Integer x;
 
                 try {
-                    return new PyInt(new Integer(self.str()));
+                    return PyInt.valueOf(new Integer(self.str()));
                 } catch (Exception ex) {
                     throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "could not convert string to int: '" + self.str() + "'");
                 }
@@ -122,14 +141,19 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyStr self = (PyStr) selfArg;
 
                 try {
                     if (self.val.equals("")) {
-                        return new PyBool(false);
+                        return PyBool.FALSE;
                     }
 
-                    return new PyBool(true);
+                    return PyBool.TRUE;
 
                 } catch (Exception ex) {
                     throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "could not convert string to bool: '" + self.str() + "'");
@@ -144,7 +168,12 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyStr self = (PyStr) selfArg;
                 PyFunList result = new PyFunList();
                 int k;
 
@@ -169,7 +198,12 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyStr self = (PyStr) selfArg;
                 ArrayList<PyObject> result = new ArrayList<>();
                 int k;
 
@@ -193,7 +227,12 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyStr self = (PyStr) selfArg;
 
                 return self;
             }
@@ -206,7 +245,12 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyStr self = (PyStr) selfArg;
 
                 if (self.val.contains("'")) {
                     return new PyStr("\"" + self.val + "\"");
@@ -292,8 +336,13 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
-                PyInt intObj = (PyInt) args.get(0);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyStr self = (PyStr) selfArg;
+                PyInt intObj = (PyInt) arg1;
                 int index = intObj.getVal();
 
                 if (index >= self.val.length()) {
@@ -312,9 +361,14 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyStr self = (PyStr) selfArg;
 
-                return new PyInt(self.val.length());
+                return PyInt.valueOf(self.val.length());
             }
 
         });
@@ -326,7 +380,12 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 1 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyStr self = (PyStr) selfArg;
 
                 return new PyStrIterator(self);
             }
@@ -340,20 +399,25 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
 
-                //We should check the type of args[0] before casting it. 
-                if (self.getType().typeId() != args.get(0).getType().typeId()) {
-                    return new PyBool(false);
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyStr self = (PyStr) selfArg;
+
+                //We should check the type of arg1 before casting it. 
+                if (self.getType().typeId() != arg1.getType().typeId()) {
+                    return PyBool.FALSE;
                 }
 
-                PyStr arg = (PyStr) args.get(0);
+                PyStr arg = (PyStr) arg1;
 
                 if (self.val.equals(arg.val)) {
-                    return new PyBool(true);
+                    return PyBool.TRUE;
                 }
 
-                return new PyBool(false);
+                return PyBool.FALSE;
             }
 
         });
@@ -365,20 +429,25 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
 
-                //We should check the type of args[0] before casting it. 
-                if (self.getType().typeId() != args.get(0).getType().typeId()) {
-                    return new PyBool(true);
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyStr self = (PyStr) selfArg;
+
+                //We should check the type of arg1 before casting it. 
+                if (self.getType().typeId() != arg1.getType().typeId()) {
+                    return PyBool.TRUE;
                 }
 
-                PyStr arg = (PyStr) args.get(0);
+                PyStr arg = (PyStr) arg1;
 
                 if (self.val.equals(arg.val)) {
-                    return new PyBool(false);
+                    return PyBool.FALSE;
                 }
 
-                return new PyBool(true);
+                return PyBool.TRUE;
             }
 
         });
@@ -390,20 +459,25 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
 
-                //We should check the type of args[0] before casting it. 
-                if (self.getType().typeId() != args.get(0).getType().typeId()) {
-                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Unorderable items str and " + args.get(0).getType().str());
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyStr self = (PyStr) selfArg;
+
+                //We should check the type of arg1 before casting it. 
+                if (self.getType().typeId() != arg1.getType().typeId()) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Unorderable items str and " + arg1.getType().str());
                 }
 
-                PyStr arg = (PyStr) args.get(0);
+                PyStr arg = (PyStr) arg1;
 
                 if (self.val.compareTo(arg.val) < 0) {
-                    return new PyBool(true);
+                    return PyBool.TRUE;
                 }
 
-                return new PyBool(false);
+                return PyBool.FALSE;
             }
 
         });
@@ -415,20 +489,25 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyStr self = (PyStr) selfArg;
 
-                //We should check the type of args[0] before casting it. 
-                if (self.getType().typeId() != args.get(0).getType().typeId()) {
-                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Unorderable items str and " + args.get(0).getType().str());
+                //We should check the type of arg1 before casting it. 
+                if (self.getType().typeId() != arg1.getType().typeId()) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Unorderable items str and " + arg1.getType().str());
                 }
 
-                PyStr arg = (PyStr) args.get(0);
+                PyStr arg = (PyStr) arg1;
 
                 if (self.val.compareTo(arg.val) > 0) {
-                    return new PyBool(true);
+                    return PyBool.TRUE;
                 }
 
-                return new PyBool(false);
+                return PyBool.FALSE;
             }
 
         });
@@ -440,20 +519,25 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyStr self = (PyStr) selfArg;
 
-                //We should check the type of args[0] before casting it. 
-                if (self.getType().typeId() != args.get(0).getType().typeId()) {
-                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Unorderable items str and " + args.get(0).getType().str());
+                //We should check the type of arg1 before casting it. 
+                if (self.getType().typeId() != arg1.getType().typeId()) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Unorderable items str and " + arg1.getType().str());
                 }
 
-                PyStr arg = (PyStr) args.get(0);
+                PyStr arg = (PyStr) arg1;
 
                 if (self.val.compareTo(arg.val) <= 0) {
-                    return new PyBool(true);
+                    return PyBool.TRUE;
                 }
 
-                return new PyBool(false);
+                return PyBool.FALSE;
             }
 
         });
@@ -465,20 +549,25 @@ public class PyStr extends PyPrimitiveTypeAdapter {
                     throw new PyException(ExceptionType.PYWRONGARGCOUNTEXCEPTION, "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyStr self = (PyStr) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyStr self = (PyStr) selfArg;
 
-                //We should check the type of args[0] before casting it. 
-                if (self.getType().typeId() != args.get(0).getType().typeId()) {
-                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Unorderable items str and " + args.get(0).getType().str());
+                //We should check the type of arg1 before casting it. 
+                if (self.getType().typeId() != arg1.getType().typeId()) {
+                    throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION, "Unorderable items str and " + arg1.getType().str());
                 }
 
-                PyStr arg = (PyStr) args.get(0);
+                PyStr arg = (PyStr) arg1;
 
                 if (self.val.compareTo(arg.val) >= 0) {
-                    return new PyBool(true);
+                    return PyBool.TRUE;
                 }
 
-                return new PyBool(false);
+                return PyBool.FALSE;
             }
 
         });
@@ -14,30 +14,42 @@ package jcoco;
 import java.util.ArrayList;
 import java.util.HashMap;
 
-public class PyStrIterator extends PyPrimitiveTypeAdapter {
+public class PyStrIterator extends PyPrimitiveTypeAdapter implements PyIterator {
 
     private PyStr str;
     private int index = 0;
 
     PyStrIterator(PyStr str) {
         super("str_iterator",PyType.PyTypeId.PyStrIteratorType);
-        initMethods(funs());
         this.str = str;
     }
 
+    @Override
+    public PyObject nextOrNull() {
+        if (this.index == this.str.str().length()) {
+            return null;
+        }
+
+        return new PyStr((new Character(this.str.str().charAt(this.index++)).toString()));
+    }
+
     public static HashMap<String, PyCallable> funs() {
         HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
 
         funs.put("__iter__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyStrIterator self = (PyStrIterator) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyStrIterator self = (PyStrIterator) selfArg;
 
                 return self;
             }
@@ -46,19 +58,24 @@ public class PyStrIterator extends PyPrimitiveTypeAdapter {
         funs.put("__next__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyStrIterator self = (PyStrIterator) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyStrIterator self = (PyStrIterator) selfArg;
+                PyObject item = self.nextOrNull();
 
-                if (self.index == self.str.str().length()) {
+                if (item == null) {
                     throw new PyException(PyException.ExceptionType.PYSTOPITERATIONEXCEPTION, "Stopping iteration");
                 }
 
-                return new PyStr((new Character(self.str.str().charAt(self.index++)).toString()));
+                return item;
             }
         });
 
@@ -9,6 +9,11 @@
  *
  * Description: This class implements the super class proxy object that 
  * redirects calls from the subclass to the base class. 
+ *
+ * The proxy is created for the class whose method called super() (see 
+ * PySuperType) and finds methods in the flattened method table of that class'
+ * base class. A call super().f(x) that is loaded with LOAD_METHOD gets the 
+ * method and self from getMethod and getSelf, so no bound method is created.
  */
 package jcoco;
 
@@ -16,11 +21,32 @@ import java.util.ArrayList;
 
 public class PySuper extends PyObjectAdapter {
     private PyObjectInst obj;
+    private PyClass cls;
     
     public PySuper(PyObjectInst obj) {
+        this(obj, (PyClass) obj.getType());
+    }
+    
+    public PySuper(PyObjectInst obj, PyClass cls) {
         super();
         this.obj = obj;
-
+        this.cls = cls;
+    }
+    
+    public PyObjectInst getSelf() {
+        return this.obj;
+    }
+    
+    // Returns the method called name of the base class, or null if the base 
+    // class has no such method.
+    public PyCallable getMethod(String name) {
+        PyClass base = this.cls.getBaseClass();
+        
+        if (base == null) {
+            return null;
+        }
+        
+        return base.getInstanceFun(name);
     }
     
     @Override
@@ -30,7 +56,7 @@ public class PySuper extends PyObjectAdapter {
     
     @Override
     public String str() {
-        return "<super: <class '" + obj.getType().str() + "'>, <" + obj.getType().str() + " object>>" ;
+        return "<super: <class '" + cls.str() + "'>, <" + obj.getType().str() + " object>>" ;
     }
     
     @Override
@@ -41,7 +67,19 @@ public class PySuper extends PyObjectAdapter {
     
     @Override
     public PyObject get(String key)  {
-        return new PyMethod(key, obj,(PyCallable)((PyClass)obj.getType()).getBaseClass().get(key));
+        PyCallable fun = this.getMethod(key);
+        
+        if (fun != null) {
+            return new PyMethod(key, obj, fun);
+        }
+        
+        PyClass base = this.cls.getBaseClass();
+        
+        if (base == null) {
+            throw new PyException(PyException.ExceptionType.PYATTRERROR, 
+                                    "AttributeError: 'super' object has no attribute '" + key + "'");
+        }
+        
+        return base.get(key);
     } 
 }
-
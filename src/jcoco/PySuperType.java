@@ -35,7 +35,14 @@ public class PySuperType extends PyType {
         
         PyFrame topFrame = callStack.peek();
         if (topFrame.getCode().getLocals().get(0).equals("self")) {
-            PyObjectInst obj = (PyObjectInst)topFrame.getLocals().get("self");
+            PyObjectInst obj = (PyObjectInst)topFrame.getLocal(0);
+            // A method that calls super() has the class it is defined in as
+            // its __class__ free variable. The base class of that class, and 
+            // not of the class of self, has the method that is overridden.
+            PyCell cell = topFrame.getCellVar("__class__");
+            if (cell != null && cell.deref() instanceof PyClass) {
+                return new PySuper(obj, (PyClass) cell.deref());
+            }
             return new PySuper(obj);
         }
         
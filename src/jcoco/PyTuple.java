@@ -30,7 +30,6 @@ class PyTuple extends PyPrimitiveTypeAdapter {
 
     public PyTuple(ArrayList<PyObject> data) {
         super("tuple", PyTypeId.PyTupleType);
-        initMethods(funs());
         this.data = data;
     }
 
@@ -96,7 +95,7 @@ class PyTuple extends PyPrimitiveTypeAdapter {
                     total = (total + (val % Integer.MAX_VALUE / 2) % (Integer.MAX_VALUE / 2));
                 }
 
-                return new PyInt(total);
+                return PyInt.valueOf(total);
             }
         }
         );
@@ -111,9 +110,14 @@ class PyTuple extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 2 arguments, got " + args.size());
                 }
 
-                PyTuple self = (PyTuple) args.get(args.size() - 1);
+                return call2(callStack, args.get(1), args.get(0));
+            }
+
+            @Override
+            public PyObject call2(PyCallStack callStack, PyObject selfArg, PyObject arg1) {
+                PyTuple self = (PyTuple) selfArg;
 
-                PyInt intObj = (PyInt) args.get(0);
+                PyInt intObj = (PyInt) arg1;
 
                 return self.getVal(intObj.getVal());
             }
@@ -130,9 +134,14 @@ class PyTuple extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyTuple self = (PyTuple) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
 
-                return new PyInt(self.data.size());
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyTuple self = (PyTuple) selfArg;
+
+                return PyInt.valueOf(self.data.size());
             }
         }
         );
@@ -147,7 +156,12 @@ class PyTuple extends PyPrimitiveTypeAdapter {
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyTuple self = (PyTuple) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyTuple self = (PyTuple) selfArg;
 
                 return new PyTupleIterator(self);
             }
@@ -14,32 +14,44 @@ package jcoco;
 import java.util.ArrayList;
 import java.util.HashMap;
 
-public class PyTupleIterator extends PyPrimitiveTypeAdapter {
+public class PyTupleIterator extends PyPrimitiveTypeAdapter implements PyIterator {
 
     private PyTuple tuple;
     private int index;
 
     public PyTupleIterator(PyTuple tuple) {
         super("tuple_iterator", PyType.PyTypeId.PyTupleIteratorType);
-        initMethods(funs());
 
         this.tuple = tuple;
         this.index = 0;
     }
 
+    @Override
+    public PyObject nextOrNull() {
+        if (this.index >= this.tuple.size()) {
+            return null;
+        }
+
+        return this.tuple.getVal(this.index++);
+    }
+
     public static HashMap<String, PyCallable> funs() {
         HashMap<String, PyCallable> funs = new HashMap<String, PyCallable>();
 
         funs.put("__iter__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyTupleIterator self = (PyTupleIterator) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyTupleIterator self = (PyTupleIterator) selfArg;
 
                 return self;
             }
@@ -48,13 +60,17 @@ public class PyTupleIterator extends PyPrimitiveTypeAdapter {
         funs.put("__next__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
-
                 if (args.size() != 1) {
                     throw new PyException(PyException.ExceptionType.PYWRONGARGCOUNTEXCEPTION,
                             "TypeError: expected 1 argument, got " + args.size());
                 }
 
-                PyTupleIterator self = (PyTupleIterator) args.get(args.size() - 1);
+                return call1(callStack, args.get(0));
+            }
+
+            @Override
+            public PyObject call1(PyCallStack callStack, PyObject selfArg) {
+                PyTupleIterator self = (PyTupleIterator) selfArg;
 
                 return self.tuple.getVal(self.index++);
             }
@@ -58,7 +58,7 @@ public class PyTurtle extends PyPrimitiveTypeAdapter {
         bColorMap.put("yellow", 0);
     }
 
-    private static PyNone none = new PyNone();
+    private static PyNone none = PyNone.NONE;
     private static PyTurtleScreen screen = null;
     double x, y;
     double direction; //in degrees
@@ -81,7 +81,6 @@ public class PyTurtle extends PyPrimitiveTypeAdapter {
     //private ArrayList<PyObject> data;
     public PyTurtle() {
         super("Turtle", PyType.PyTypeId.PyTurtleType);
-        initMethods(funs());
         rPen = rColorMap.get("black");
         gPen = gColorMap.get("black");
         bPen = bColorMap.get("black");
@@ -286,7 +285,7 @@ public class PyTurtle extends PyPrimitiveTypeAdapter {
                 }
 
                 PyTurtle self = (PyTurtle) args.get(0);
-                return new PyBool(self.isVisible());
+                return PyBool.valueOf(self.isVisible());
             }
         });
 
@@ -312,7 +311,7 @@ public class PyTurtle extends PyPrimitiveTypeAdapter {
                 }
 
                 PyTurtle self = (PyTurtle) args.get(0);
-                return new PyInt(screen.makeStamp(self));
+                return PyInt.valueOf(screen.makeStamp(self));
             }
         });
 
@@ -386,7 +385,7 @@ public class PyTurtle extends PyPrimitiveTypeAdapter {
                 }
                 if (args.size() == 1) {
                     PyTurtle self = (PyTurtle) args.get(0);
-                    return new PyInt(self.width);
+                    return PyInt.valueOf(self.width);
                 }
                 //Otherwise, setting self.width
                 PyTurtle self = (PyTurtle) args.get(1);
@@ -404,7 +403,7 @@ public class PyTurtle extends PyPrimitiveTypeAdapter {
                 }
                 if (args.size() == 1) {
                     PyTurtle self = (PyTurtle) args.get(0);
-                    return new PyInt(self.width);
+                    return PyInt.valueOf(self.width);
                 }
                 //Otherwise, setting self.width
                 PyTurtle self = (PyTurtle) args.get(1);
@@ -840,7 +839,7 @@ public class PyTurtle extends PyPrimitiveTypeAdapter {
                 }
 
                 PyTurtle self = (PyTurtle) args.get(0);
-                return new PyBool(self.isdown());
+                return PyBool.valueOf(self.isdown());
 
             }
         });
@@ -1274,7 +1273,7 @@ public class PyTurtle extends PyPrimitiveTypeAdapter {
 
                 PyTurtle self = (PyTurtle) args.get(args.size() - 1);
 
-                return new PyBool(self.filling);
+                return PyBool.valueOf(self.filling);
             }
 
         });
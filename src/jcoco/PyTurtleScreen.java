@@ -41,7 +41,7 @@ public class PyTurtleScreen extends PyPrimitiveTypeAdapter {
     private static final int ScreenHeight = 8000;
     private double screenXFactor;
     private double screenYFactor;
-    private static PyNone none = new PyNone();
+    private static PyNone none = PyNone.NONE;
     private static int stampNum = 0;
     private static int n;
     private TurtlePanel panel = null;
@@ -81,7 +81,6 @@ public class PyTurtleScreen extends PyPrimitiveTypeAdapter {
 
     public PyTurtleScreen() {
         super("turtle._Screen", PyType.PyTypeId.PyTurtleScreenType);
-        initMethods(funs());
 
         JFrame.setDefaultLookAndFeelDecorated(false);
         frame = new JFrame("Turtle Graphics");
@@ -13,8 +13,13 @@
  * of each different type of CoCo value. For instance, there is one instance of
  * PyType for all PyInt objects. All PyInt objects, when their type is requested
  * (via the type function) return the one instance of the PyInt type. This is
- * found by looking up the instance in the PyTypes map that is declared at the
- * bottom of this header file. The main.cpp code initializes this map.
+ * found by looking up the instance in the PyTypes table that is declared in
+ * JCoCo.java (see PyTypeTable). JCoCo.initTypes fills in this table.
+ *
+ * Each type also holds the methods of its instances (see setInstanceFuns).
+ * These are shared by all objects of the type and are called with the object
+ * as the last argument. Methods a type does not define itself are found in 
+ * the primitiveFuns common to all objects (see PyPrimitiveTypeAdapter).
  */
 package jcoco;
 
@@ -50,25 +55,50 @@ public class PyType extends PyCallableAdapter {
         PyExceptionTypeId,
         PyDictType,
         PyDictKeyIteratorType,
-        PyBaseCallable,
         PyMapType,
         PySuperTypeId,
         PyFileType,
         PyModuleType,
-        PyMarkerType,
         PyTurtleType,
         PyTurtleScreenType
     }
 
+    // The special methods that the virtual machine calls have fixed slot 
+    // numbers. A type keeps the methods of its instances for these in the 
+    // slots array, so they are called by number (see PyObject.callSlot) 
+    // instead of being looked up by name.
+    public static final int SLOT_ADD = 0;
+    public static final int SLOT_SUB = 1;
+    public static final int SLOT_LT = 2;
+    public static final int SLOT_EQ = 3;
+    public static final int SLOT_HASH = 4;
+    public static final int SLOT_ITER = 5;
+    public static final int SLOT_NEXT = 6;
+    public static final int SLOT_GETITEM = 7;
+    public static final int SLOT_SETITEM = 8;
+    public static final int SLOT_LEN = 9;
+    public static final int SLOT_STR = 10;
+    public static final int SLOT_REPR = 11;
+    public static final int SLOT_CALL = 12;
+    private static final String[] slotNames = {"__add__", "__sub__", "__lt__", "__eq__", "__hash__",
+        "__iter__", "__next__", "__getitem__", "__setitem__", "__len__", "__str__", "__repr__", "__call__"};
+
+    private static HashMap<String, PyCallable> objectFuns;
+
+    // The attrs are the attributes of the type itself, like the functions of
+    // a class and the names stored by its class body.
+    protected HashMap<String, PyObject> attrs = new HashMap<String, PyObject>();
     private String typeString;
     private PyTypeId index;
+    private HashMap<String, PyCallable> instanceFuns = new HashMap<String, PyCallable>();
+    protected PyCallable[] slots = null;
 
     public PyType(String typeString, PyTypeId id) {
         PyType self = this;
         this.typeString = typeString;
         this.index = id;
 
-        this.dict.put("__str__", new PyCallableAdapter() {
+        this.set("__str__", new PyCallableAdapter() {
             @Override
             public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
                 if (args.size() != 0) {
@@ -96,6 +126,17 @@ public class PyType extends PyCallableAdapter {
         return index;
     }
 
+    @Override
+    public PyObject get(String key) {
+        PyObject value = this.attrs.get(key);
+
+        if (value != null) {
+            return value;
+        }
+
+        return super.get(key);
+    }
+
     @Override
     public PyObject __call__(PyCallStack callStack, ArrayList<PyObject> args) {
 
@@ -110,6 +151,47 @@ public class PyType extends PyCallableAdapter {
     }
 
     public void setInstanceFuns(HashMap<String, PyCallable> funs) {
+        // The funs are also attributes of the type so, for instance, 
+        // int.__add__ can be called with self passed explicitly.
         attrs.putAll(funs);
+        instanceFuns.putAll(funs);
+        this.slots = this.fillSlots();
+    }
+
+    public static String slotName(int slot) {
+        return slotNames[slot];
+    }
+
+    // Returns the method of the instances of this type in the numbered slot,
+    // or null if they do not have that method.
+    public PyCallable getSlot(int slot) {
+        if (this.slots == null) {
+            this.slots = this.fillSlots();
+        }
+
+        return this.slots[slot];
+    }
+
+    protected PyCallable[] fillSlots() {
+        PyCallable[] funs = new PyCallable[slotNames.length];
+
+        for (int i = 0; i < slotNames.length; i++) {
+            funs[i] = this.getInstanceFun(slotNames[i]);
+        }
+
+        return funs;
+    }
+
+    public PyCallable getInstanceFun(String name) {
+        PyCallable fun = instanceFuns.get(name);
+
+        if (fun == null) {
+            if (objectFuns == null) {
+                objectFuns = PyPrimitiveTypeAdapter.primitiveFuns();
+            }
+            fun = objectFuns.get(name);
+        }
+
+        return fun;
     }
 }
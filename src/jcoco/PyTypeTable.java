@@ -0,0 +1,31 @@
+/**
+ * PyTypeTable.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The table of the built-in types of JCoCo (see JCoCo.PyTypes). Every object
+ * finds its type here when getType is called, which happens in nearly every
+ * instruction, so the types are kept in an array indexed by the ordinal of
+ * their PyTypeId instead of in a map.
+ */
+package jcoco;
+
+import jcoco.PyType.PyTypeId;
+
+public final class PyTypeTable {
+
+    private final PyType[] types = new PyType[PyTypeId.values().length];
+
+    public PyType get(PyTypeId id) {
+        return this.types[id.ordinal()];
+    }
+
+    public void put(PyTypeId id, PyType type) {
+        this.types[id.ordinal()] = type;
+    }
+}
@@ -0,0 +1,309 @@
+/**
+ * PyVerifier.java
+ * Author: Kent D. Lee (c) 2017 Created on Jan 10, 2017.
+ *
+ * License: Please read the LICENSE file in this distribution for details
+ * regarding the licensing of this code. This code is freely available for
+ * educational use. THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY
+ * KIND.
+ *
+ * Description:
+ * The PyVerifier checks the instructions of each function when PyParser loads
+ * it, so that a malformed casm file is rejected with a description of what is
+ * wrong instead of failing part way through a run. It checks that:
+ *
+ * - the operand of each instruction is a valid index of an instruction,
+ *   constant, local, global, or cell or free variable, as the instruction
+ *   requires,
+ * - a superinstruction is followed by the rest of its sequence,
+ * - no instruction takes more values off the operand stack than are on it,
+ *   and no instruction pops the block stack when it is empty,
+ * - the operand stack does not grow or shrink each time a loop runs, and
+ * - execution cannot run past the last instruction.
+ *
+ * The stacks are followed along every path through the instructions, using
+ * the stack effects given by PyByteCode. The paths include the edges to the
+ * handlers of SETUP_EXCEPT and SETUP_FINALLY blocks, which are entered with
+ * the operand stack cut back to where it was when the block was set up and
+ * the traceback, value, and exception pushed on it, and the edge from a
+ * SETUP_LOOP to its target, which is where a BREAK_LOOP goes with the stack
+ * cut back the same way. An instruction may be reached with different stack
+ * depths along different paths, so the verifier keeps each one it finds.
+ * For the block stack it keeps the smallest depth, since an END_FINALLY that
+ * ends a handler leaves the handler's block on the block stack, so paths 
+ * through handlers may leave more blocks than others.
+ *
+ * END_FINALLY takes the exception and the two values below it off the stack
+ * when the exception a handler was entered with is on top, and one value
+ * otherwise. The verifier remembers where that exception is for as long as
+ * it stays on the stack, so it knows which END_FINALLY does which.
+ *
+ * PyFrame relies on the verifier and does not check for an empty operand
+ * stack as it executes the instructions.
+ */
+package jcoco;
+
+import java.util.ArrayList;
+import jcoco.PyException.ExceptionType;
+
+public class PyVerifier {
+
+    private static final int MAX_DEPTH = 0x7FFF;
+    private static final int MAX_STATES = 16;
+
+    private final String name;
+    private final ArrayList<PyByteCode> instructions;
+
+    private PyVerifier(String name, ArrayList<PyByteCode> instructions) {
+        this.name = name;
+        this.instructions = instructions;
+    }
+
+    // Checks the instructions of the function called name, which has the
+    // given numbers of constants, locals, cell and free variables, and
+    // globals. A PyException describing the first problem found is thrown if
+    // the instructions are not valid.
+    public static void verify(String name, ArrayList<PyByteCode> instructions, int constCount,
+            int localCount, int cellCount, int globalCount) {
+        PyVerifier verifier = new PyVerifier(name, instructions);
+        verifier.checkOperands(constCount, localCount, cellCount, globalCount);
+        verifier.checkStacks();
+    }
+
+    private void fail(int pc, String message) {
+        throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                "VerifyError: in function " + this.name + ", instruction " + pc + " ("
+                + this.instructions.get(pc).toString().trim().replaceAll(" +", " ") + ") " + message);
+    }
+
+    private void checkIndex(int pc, int operand, int count, String what) {
+        if (operand < 0 || operand >= count) {
+            fail(pc, "refers to " + what + " " + operand + " but there are only " + count);
+        }
+    }
+
+    private int opcodeAt(int pc) {
+        if (pc >= this.instructions.size()) {
+            return -1;
+        }
+
+        return this.instructions.get(pc).getOpCode().code();
+    }
+
+    private void checkOperands(int constCount, int localCount, int cellCount, int globalCount) {
+        int count = this.instructions.size();
+
+        for (int pc = 0; pc < count; pc++) {
+            PyByteCode inst = this.instructions.get(pc);
+            int opcode = inst.getOpCode().code();
+            int operand = inst.getOperand();
+
+            if (PyByteCode.hasJump(opcode) || opcode == PyByteCode.SETUP_LOOP || opcode == PyByteCode.CONTINUE_LOOP) {
+                checkIndex(pc, operand, count, "instruction");
+            }
+
+            switch (opcode) {
+                case PyByteCode.LOAD_CONST:
+                    checkIndex(pc, operand, constCount, "constant");
+                    break;
+                case PyByteCode.LOAD_FAST:
+                case PyByteCode.STORE_FAST:
+                case PyByteCode.DELETE_FAST:
+                    checkIndex(pc, operand, localCount, "local");
+                    break;
+                case PyByteCode.LOAD_DEREF:
+                case PyByteCode.STORE_DEREF:
+                case PyByteCode.DELETE_DEREF:
+                case PyByteCode.LOAD_CLOSURE:
+                    checkIndex(pc, operand, cellCount, "cell or free variable");
+                    break;
+                case PyByteCode.LOAD_GLOBAL:
+                case PyByteCode.STORE_GLOBAL:
+                case PyByteCode.DELETE_GLOBAL:
+                case PyByteCode.LOAD_NAME:
+                case PyByteCode.STORE_NAME:
+                case PyByteCode.DELETE_NAME:
+                case PyByteCode.LOAD_ATTR:
+                case PyByteCode.STORE_ATTR:
+                case PyByteCode.DELETE_ATTR:
+                case PyByteCode.LOAD_METHOD:
+                    checkIndex(pc, operand, globalCount, "global");
+                    break;
+                case PyByteCode.COMPARE_OP:
+                    //These are the comparisons PyFrame knows (see cmp_op).
+                    checkIndex(pc, operand, 11, "comparison");
+                    break;
+                case PyByteCode.BUILD_TUPLE:
+                case PyByteCode.BUILD_LIST:
+                case PyByteCode.BUILD_SET:
+                case PyByteCode.BUILD_FUNLIST:
+                case PyByteCode.BUILD_SLICE:
+                case PyByteCode.CALL_FUNCTION:
+                case PyByteCode.CALL_METHOD:
+                case PyByteCode.SELECT_TUPLE:
+                    if (operand < 0) {
+                        fail(pc, "has a negative count");
+                    }
+                    break;
+                case PyByteCode.LOAD_FAST_LOAD_FAST:
+                    checkIndex(pc, operand, localCount, "local");
+
+                    if (opcodeAt(pc + 1) != PyByteCode.LOAD_FAST) {
+                        fail(pc, "must be followed by a LOAD_FAST");
+                    }
+                    break;
+                case PyByteCode.ADD_CONST_FAST:
+                    checkIndex(pc, operand, localCount, "local");
+
+                    if (opcodeAt(pc + 1) != PyByteCode.LOAD_CONST
+                            || (opcodeAt(pc + 2) != PyByteCode.BINARY_ADD && opcodeAt(pc + 2) != PyByteCode.INPLACE_ADD)
+                            || opcodeAt(pc + 3) != PyByteCode.STORE_FAST) {
+                        fail(pc, "must be followed by LOAD_CONST, BINARY_ADD or INPLACE_ADD, and STORE_FAST");
+                    }
+                    break;
+            }
+        }
+    }
+
+    // A state is the depth of the operand stack, the depth of the block
+    // stack, and where the exception a handler was entered with is on the
+    // operand stack (or -1), packed into a long. Masking out the block depth
+    // leaves the part of the state that must be the same on every pass
+    // through a loop.
+    private static final long BLOCKS = 0xFFFFL << 16;
+
+    private static long state(int depth, int blocks, int exception) {
+        return ((long) depth << 32) | ((long) blocks << 16) | (exception + 1);
+    }
+
+    private static int depthOf(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int blocksOf(long state) {
+        return (int) ((state >>> 16) & 0xFFFF);
+    }
+
+    private static int exceptionOf(long state) {
+        return (int) (state & 0xFFFF) - 1;
+    }
+
+    // The exception stays where it is on the stack as long as none of it
+    // and the two values below it are taken off.
+    private static int keep(int exception, int depth, int pops) {
+        if (exception >= 0 && depth - pops >= exception + 3) {
+            return exception;
+        }
+
+        return -1;
+    }
+
+    private void checkStacks() {
+        int count = this.instructions.size();
+        ArrayList<ArrayList<Long>> seen = new ArrayList<ArrayList<Long>>(count);
+        //Each entry of the worklist is an instruction, the state it is reached
+        //with, and the instruction it is reached from.
+        ArrayList<long[]> worklist = new ArrayList<long[]>();
+
+        for (int pc = 0; pc < count; pc++) {
+            seen.add(new ArrayList<Long>());
+        }
+
+        if (count == 0) {
+            throw new PyException(ExceptionType.PYILLEGALOPERATIONEXCEPTION,
+                    "VerifyError: function " + this.name + " has no instructions");
+        }
+
+        seen.get(0).add(state(0, 0, -1));
+        worklist.add(new long[]{0, state(0, 0, -1), -1});
+
+        while (!worklist.isEmpty()) {
+            long[] item = worklist.remove(worklist.size() - 1);
+            int pc = (int) item[0];
+            int depth = depthOf(item[1]);
+            int blocks = blocksOf(item[1]);
+            int exception = exceptionOf(item[1]);
+            String path = item[2] < 0 ? "" : " when it is reached from instruction " + item[2];
+            PyByteCode inst = this.instructions.get(pc);
+            int opcode = inst.getOpCode().code();
+            int operand = inst.getOperand();
+            int inputs = PyByteCode.stackInputs(opcode, operand);
+
+            if (depth < inputs) {
+                fail(pc, "needs " + inputs + (inputs == 1 ? " value" : " values") + " on the operand stack but there "
+                        + (depth == 1 ? "is only 1" : "are only " + depth) + path);
+            }
+
+            if (PyByteCode.blockEffect(opcode) < 0 && blocks == 0) {
+                fail(pc, "pops the block stack but it is empty" + path);
+            }
+
+            if (opcode == PyByteCode.END_FINALLY) {
+                if (exception >= 0 && depth == exception + 3) {
+                    if (blocks == 0) {
+                        fail(pc, "ends an exception handler but the block stack is empty" + path);
+                    }
+
+                    this.follow(worklist, seen, pc, pc + 1, depth - 3, blocks - 1, -1);
+                } else {
+                    this.follow(worklist, seen, pc, pc + 1, depth - 1, blocks, keep(exception, depth, 1));
+                }
+                continue;
+            }
+
+            int pops = (opcode == PyByteCode.DUP_TOP || opcode == PyByteCode.DUP_TOP_TWO) ? 0 : inputs;
+            int nextBlocks = blocks + PyByteCode.blockEffect(opcode);
+
+            if (!PyByteCode.endsBlock(opcode)) {
+                int next = depth + PyByteCode.stackEffect(opcode, operand, false);
+                this.follow(worklist, seen, pc, pc + 1, next, nextBlocks, keep(exception, depth, pops));
+            }
+
+            if (opcode == PyByteCode.SETUP_EXCEPT || opcode == PyByteCode.SETUP_FINALLY) {
+                this.follow(worklist, seen, pc, operand, depth + 3, nextBlocks, depth);
+            } else if (PyByteCode.hasJump(opcode) || opcode == PyByteCode.CONTINUE_LOOP) {
+                int next = depth + PyByteCode.stackEffect(opcode, operand, true);
+                this.follow(worklist, seen, pc, operand, next, nextBlocks, keep(exception, depth, Math.max(0, depth - next)));
+            } else if (opcode == PyByteCode.SETUP_LOOP) {
+                //The BREAK_LOOP of the loop goes to the target with the stacks
+                //as they were before the loop.
+                this.follow(worklist, seen, pc, operand, depth, blocks, exception);
+            }
+        }
+    }
+
+    private void follow(ArrayList<long[]> worklist, ArrayList<ArrayList<Long>> seen, int from, int pc,
+            int depth, int blocks, int exception) {
+        if (pc >= this.instructions.size()) {
+            fail(from, "is followed by the end of the function, so execution may run past the last instruction");
+        }
+
+        if (depth > MAX_DEPTH || blocks > MAX_DEPTH) {
+            fail(pc, "is reached with a stack that keeps growing");
+        }
+
+        long s = state(depth, blocks, exception);
+        ArrayList<Long> states = seen.get(pc);
+
+        for (int i = 0; i < states.size(); i++) {
+            long other = states.get(i);
+
+            if ((other & ~BLOCKS) == (s & ~BLOCKS)) {
+                if (blocksOf(other) <= blocks) {
+                    return;
+                }
+
+                states.set(i, s);
+                worklist.add(new long[]{pc, s, from});
+                return;
+            }
+        }
+
+        if (states.size() == MAX_STATES) {
+            fail(pc, "is reached with a different stack depth each time a loop runs through it");
+        }
+
+        states.add(s);
+        worklist.add(new long[]{pc, s, from});
+    }
+}
@@ -0,0 +1,14 @@
+import disassembler
+import sys
+
+def main():
+	secs = 24 * 60 * 60
+	print(secs)
+	print("Hello, " + "World")
+	t = (1, 2.5, "Hello, ")
+	print(t, 7 // 2, 7 % 3, 1.5 * 2, 10 - 3 * 2)
+
+if len(sys.argv) == 1:
+	main()
+else:
+	disassembler.disassemble(main)
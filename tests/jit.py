@@ -0,0 +1,26 @@
+import disassembler
+import sys
+
+def fib(n):
+	if n < 2:
+		return n
+	return fib(n-1) + fib(n-2)
+
+def digits(n):
+	total = 0
+	i = 0
+	while i < n:
+		total = total + i % 10
+		i = i + 1
+	return total
+
+def main():
+	print(fib(20))
+	print(digits(50000))
+
+if len(sys.argv) == 1:
+	main()
+else:
+	disassembler.disassemble(fib)
+	disassembler.disassemble(digits)
+	disassembler.disassemble(main)
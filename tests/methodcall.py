@@ -0,0 +1,27 @@
+import disassembler
+import sys
+
+class Counter:
+	def __init__(self,start):
+		self.count = start
+
+	def add(self,n):
+		self.count = self.count + n
+		return self.count
+
+def main():
+	c = Counter(10)
+	c.add(5)
+	lst = []
+	lst.append(c.add(1))
+	f = c.add
+	print(f(2))
+	c.size = len
+	print(c.size(lst))
+	print(c.count, lst)
+
+if len(sys.argv) == 1:
+	main()
+else:
+	disassembler.disassemble(Counter)
+	disassembler.disassemble(main)
@@ -0,0 +1,24 @@
+import disassembler
+import sys
+
+def count(n):
+	i = 0
+	total = 0
+	x = 0.5
+	while True:
+		if i >= n:
+			break
+		total = total + i
+		i = i + 1
+		x += 1
+	return (i, total, x)
+
+def main():
+	print(count(10))
+	print(count(0))
+
+if len(sys.argv) == 1:
+	main()
+else:
+	disassembler.disassemble(count)
+	disassembler.disassemble(main)